@@ -28,13 +28,22 @@ public class MainActivity extends AppCompatActivity implements
         btn4.setTag(R.style.OrangeDialog);
 
         final ClickListener clickListener = new ClickListener(btn1, btn2, btn3, btn4);
+
+        prewarm(btn1, btn2, btn3, btn4);
+    }
+
+    private void prewarm(View... buttons) {
+        for (View button : buttons) {
+            MaterialTimePicker.prewarm(this, (Integer) button.getTag());
+        }
     }
 
     private void showDialog(View clicked, int themeResId) {
         final MaterialTimePickerBuilder builder = new MaterialTimePickerBuilder().withActivity(MainActivity.this)
                 .withTime(System.currentTimeMillis())
                 .withTheme(themeResId)
-                .revealFromView(clicked);
+                .revealFromView(clicked)
+                .keepWarm(true);
 
         final MaterialTimePicker materialTimePicker = builder.build();
         materialTimePicker.show(getSupportFragmentManager(), "material picker");
@@ -43,6 +52,7 @@ public class MainActivity extends AppCompatActivity implements
     @Override
     public void onTimeSelected(long millis) {
         Log.d("material-picker-demo", new Date(millis).toString());
+        Log.d("material-picker-demo", MaterialTimePicker.getPrewarmStats().toString());
     }
 
     @Override
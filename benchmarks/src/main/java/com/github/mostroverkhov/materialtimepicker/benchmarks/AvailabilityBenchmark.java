@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.benchmarks;
+
+import com.github.mostroverkhov.materialtimepicker.core.AvailabilityIndex;
+import com.github.mostroverkhov.materialtimepicker.core.State;
+import com.github.mostroverkhov.materialtimepicker.core.Time;
+import com.github.mostroverkhov.materialtimepicker.core.TimeConstraints;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability of booked intervals: building {@link AvailabilityIndex}, compiling it into
+ * {@link TimeConstraints} (once per dialog open), and enabled digits lookup per keystroke.
+ * Intervals are short and random, every tenth minute is kept free
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class AvailabilityBenchmark {
+
+    @Param({"100", "10000"})
+    public int intervals;
+
+    private int[] starts;
+    private int[] ends;
+    private AvailabilityIndex index;
+    private TimeConstraints constraints;
+    private Time[] prefixes;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        starts = new int[intervals];
+        ends = new int[intervals];
+        for (int i = 0; i < intervals; i++) {
+            final int offset = 1 + random.nextInt(8);
+            starts[i] = random.nextInt(144) * 10 + offset;
+            ends[i] = starts[i] + 1 + random.nextInt(10 - offset);
+        }
+        index = AvailabilityIndex.ofBlocked(starts, ends);
+        constraints = TimeConstraints.of(index);
+
+        prefixes = new Time[64];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = Time.fromMinuteOfDay(random.nextInt(24 * 60));
+        }
+    }
+
+    @Benchmark
+    public AvailabilityIndex buildIndex() {
+        return AvailabilityIndex.ofBlocked(starts, ends);
+    }
+
+    @Benchmark
+    public TimeConstraints buildConstraints() {
+        return TimeConstraints.of(AvailabilityIndex.ofBlocked(starts, ends));
+    }
+
+    /*all four positions of 64 times*/
+    @Benchmark
+    public int enabledDigits() {
+        final TimeConstraints constraints = this.constraints;
+        int mask = 0;
+        for (Time time : prefixes) {
+            mask ^= constraints.enabledDigits(State.FIRST_HOUR, time);
+            mask ^= constraints.enabledDigits(State.SEC_HOUR, time);
+            mask ^= constraints.enabledDigits(State.FIRST_MIN, time);
+            mask ^= constraints.enabledDigits(State.SEC_MIN, time);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.benchmarks;
+
+import com.github.mostroverkhov.materialtimepicker.core.TimeConversions;
+import com.github.mostroverkhov.materialtimepicker.core.TimeEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-UI work of whole dialog session, as done by MaterialTimePicker: time from millis on open,
+ * ten keystrokes with enabled keys refresh and special case correction, millis on done.
+ * Run with -prof gc: per session, only opening Time and TimeEntry are expected to allocate
+ * (default zone is read once a second); keystrokes should not
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DialogSessionBenchmark {
+
+    /*14:30, then 19:59, then first hour 2 -> special case 23:59, then 23*/
+    private static final int[] KEYSTROKES = {1, 4, 3, 0, 1, 9, 5, 9, 2, 3};
+
+    private long openMillis;
+
+    @Setup
+    public void setUp() {
+        openMillis = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public long session() {
+        final TimeEntry entry = new TimeEntry(TimeConversions.millisToTime(openMillis));
+
+        int keys = entry.getEnabledDigits();
+        for (int digit : KEYSTROKES) {
+            entry.enterDigit(digit);
+            entry.addressSpecialCases();
+            keys ^= entry.getEnabledDigits();
+        }
+        return TimeConversions.timeToMillis(entry.getTime(), openMillis) + keys;
+    }
+}
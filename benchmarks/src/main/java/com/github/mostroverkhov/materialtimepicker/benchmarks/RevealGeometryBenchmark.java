@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.benchmarks;
+
+import com.github.mostroverkhov.materialtimepicker.core.RevealGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reveal origin: nearest point of dialog bounds to touch point, for touch points inside,
+ * beside and diagonal to dialog
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RevealGeometryBenchmark {
+
+    /*dialog bounds on screen*/
+    private final int left = 100;
+    private final int top = 400;
+    private final int right = 820;
+    private final int bottom = 1600;
+
+    /*inside, left of, below, top left diagonal, bottom right diagonal*/
+    private final int[] targetsX = {400, 20, 500, 10, 1000};
+    private final int[] targetsY = {900, 800, 1800, 50, 1900};
+
+    @Benchmark
+    public long nearestPoints() {
+        long acc = 0;
+        for (int i = 0; i < targetsX.length; i++) {
+            acc += RevealGeometry.nearestPoint(left, top, right, bottom, targetsX[i], targetsY[i]);
+        }
+        return acc;
+    }
+}
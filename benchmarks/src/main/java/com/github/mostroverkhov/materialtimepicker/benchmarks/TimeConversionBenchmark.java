@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.benchmarks;
+
+import com.github.mostroverkhov.materialtimepicker.core.Time;
+import com.github.mostroverkhov.materialtimepicker.core.TimeConversions;
+import com.github.mostroverkhov.materialtimepicker.core.TimeConverter;
+import com.github.mostroverkhov.materialtimepicker.core.TimeOfDay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TimeConverter} against Calendar based conversion it replaced: millis -> minute of day
+ * on dialog open, minute of day -> millis on confirm. Also {@link TimeConversions} used by dialog,
+ * default zone, and {@link TimeOfDay} conversion of primitive result on caller's request.
+ * Far apart instants alternate between two instants decades away from current time
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimeConversionBenchmark {
+
+    @Param({"America/New_York", "Europe/Berlin", "UTC"})
+    public String zoneId;
+
+    private TimeZone zone;
+    private TimeConverter converter;
+    private long millis;
+    private int minuteOfDay;
+    private Time time;
+    private long pastMillis;
+    private long futureMillis;
+    private boolean past;
+
+    @Setup
+    public void setUp() {
+        zone = TimeZone.getTimeZone(zoneId);
+        converter = TimeConverter.forZone(zone);
+        millis = System.currentTimeMillis();
+        minuteOfDay = 14 * 60 + 30;
+        time = Time.fromMinuteOfDay(minuteOfDay);
+        pastMillis = millis - 30 * 366 * 24 * 60 * 60 * 1000L;
+        futureMillis = millis + 30 * 366 * 24 * 60 * 60 * 1000L;
+    }
+
+    @Benchmark
+    public int millisToMinuteOfDayCalendar() {
+        final Calendar calendar = Calendar.getInstance(zone);
+        calendar.setTimeInMillis(millis);
+        return calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+    }
+
+    @Benchmark
+    public int millisToMinuteOfDayConverter() {
+        return converter.minuteOfDay(millis);
+    }
+
+    @Benchmark
+    public long minuteOfDayToMillisCalendar() {
+        final Calendar calendar = Calendar.getInstance(zone);
+        calendar.setTimeInMillis(millis);
+        calendar.set(Calendar.HOUR_OF_DAY, minuteOfDay / 60);
+        calendar.set(Calendar.MINUTE, minuteOfDay % 60);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    @Benchmark
+    public long minuteOfDayToMillisConverter() {
+        return converter.toMillis(millis, minuteOfDay);
+    }
+
+    @Benchmark
+    public int farApartInstantsConverter() {
+        past = !past;
+        return converter.minuteOfDay(past ? pastMillis : futureMillis);
+    }
+
+    @Benchmark
+    public long timeOfDayToMillis() {
+        return TimeOfDay.toMillis(minuteOfDay, 30, millis, zone);
+    }
+
+    @Benchmark
+    public long timeToMillis() {
+        return TimeConversions.timeToMillis(time, millis);
+    }
+
+    @Benchmark
+    public Time millisToTime() {
+        return TimeConversions.millisToTime(millis, time);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.benchmarks;
+
+import com.github.mostroverkhov.materialtimepicker.core.State;
+import com.github.mostroverkhov.materialtimepicker.core.Time;
+import com.github.mostroverkhov.materialtimepicker.core.TimeConstraints;
+import com.github.mostroverkhov.materialtimepicker.core.TimeEntry;
+import com.github.mostroverkhov.materialtimepicker.core.TimeFormat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keystroke path of {@link TimeEntry}: full four digit entries with special case correction,
+ * and enabled digits computation for every position, w/o and with constraints. 12 hour entry
+ * enters same time of day on 12 hour clock, AM/PM toggle included. HH:MM:SS entry enters same
+ * digits followed by seconds 30: per keystroke cost should match HH:MM. Transitions entry
+ * is keystroke step as UI applies it, see {@link TimeEntry#applyDigit(int)}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class TimeEntryBenchmark {
+
+    /*entered over initial time 15:45; "2..." entries hit special case correction*/
+    @Param({"1430", "2359", "0000", "2015"})
+    public String sequence;
+
+    private int[] digits;
+    private TimeEntry entry;
+    /*08:00-18:30, 15 minutes step*/
+    private TimeEntry constrainedEntry;
+    /*same time of day as sequence, on 12 hour clock*/
+    private int[] twelveHourDigits;
+    private boolean pm;
+    private TimeEntry twelveHourEntry;
+    private int[] secondsDigits;
+    private TimeEntry secondsEntry;
+
+    @Setup
+    public void setUp() {
+        digits = new int[sequence.length()];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = sequence.charAt(i) - '0';
+        }
+        entry = new TimeEntry(new Time(1, 5, 4, 5));
+        constrainedEntry = new TimeEntry(new Time(1, 5, 4, 5));
+        constrainedEntry.setConstraints(TimeConstraints.of(8 * 60, 18 * 60 + 30, 15));
+
+        final int hours = digits[0] * 10 + digits[1];
+        final int clockHours = Time.toClockHours(hours);
+        twelveHourDigits = clockHours >= 2 && clockHours <= 9
+                ? new int[]{clockHours, digits[2], digits[3]}
+                : new int[]{clockHours / 10, clockHours % 10, digits[2], digits[3]};
+        pm = hours >= 12;
+        twelveHourEntry = new TimeEntry(new Time());
+        twelveHourEntry.getTime().setTwelveHour(true);
+
+        secondsDigits = new int[]{digits[0], digits[1], digits[2], digits[3], 3, 0};
+        secondsEntry = new TimeEntry(new Time(), TimeFormat.HH_MM_SS);
+    }
+
+    @Benchmark
+    public int enterSequence() {
+        final TimeEntry entry = this.entry;
+        entry.getTime().setMinuteOfDay(15 * 60 + 45);
+        entry.select(State.FIRST_HOUR);
+
+        int changed = 0;
+        for (int digit : digits) {
+            if (entry.enterDigit(digit)) {
+                changed++;
+            }
+            if (entry.addressSpecialCases()) {
+                changed++;
+            }
+        }
+        return changed + entry.getTime().getMinuteOfDay();
+    }
+
+    /*whole keystroke step as UI applies it: entry, correction, changed positions and keys
+    enabled for next position*/
+    @Benchmark
+    public int enterSequenceTransitions() {
+        final TimeEntry entry = this.entry;
+        entry.getTime().setMinuteOfDay(15 * 60 + 45);
+        entry.select(State.FIRST_HOUR);
+
+        int result = 0;
+        for (int digit : digits) {
+            result ^= entry.applyDigit(digit);
+        }
+        return result + entry.getTime().getMinuteOfDay();
+    }
+
+    @Benchmark
+    public int enterSequenceTwelveHour() {
+        final TimeEntry entry = this.twelveHourEntry;
+        entry.getTime().setMinuteOfDay(15 * 60 + 45);
+        entry.select(State.FIRST_HOUR);
+
+        int changed = 0;
+        for (int digit : twelveHourDigits) {
+            if (entry.enterDigit(digit)) {
+                changed++;
+            }
+            if (entry.addressSpecialCases()) {
+                changed++;
+            }
+        }
+        if (entry.setPm(pm)) {
+            changed++;
+        }
+        return changed + entry.getTime().getMinuteOfDay();
+    }
+
+    @Benchmark
+    public int enterSequenceWithSeconds() {
+        final TimeEntry entry = this.secondsEntry;
+        entry.getTime().setSecondOfDay((15 * 60 + 45) * 60);
+        entry.select(State.FIRST_HOUR);
+
+        int changed = 0;
+        for (int digit : secondsDigits) {
+            if (entry.enterDigit(digit)) {
+                changed++;
+            }
+            if (entry.addressSpecialCases()) {
+                changed++;
+            }
+        }
+        return changed + entry.getTime().getSecondOfDay();
+    }
+
+    @Benchmark
+    public int enabledDigits() {
+        final TimeEntry entry = this.entry;
+        int mask = 0;
+        for (int pos = 0; pos < 4; pos++) {
+            entry.select(State.atPosition(pos));
+            mask ^= entry.getEnabledDigits();
+        }
+        return mask;
+    }
+
+    @Benchmark
+    public int enabledDigitsConstrained() {
+        final TimeEntry entry = this.constrainedEntry;
+        int mask = 0;
+        for (int pos = 0; pos < 4; pos++) {
+            entry.select(State.atPosition(pos));
+            mask ^= entry.getEnabledDigits();
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+/**
+ * Free minutes of day, as bitset: bit N is set if minute of day N is not blocked by any of
+ * blocked intervals. Built in time linear to intervals count plus minutes of day, so thousands
+ * of booked intervals are fine. Used as part of {@link TimeConstraints}, which compiles it into
+ * per-prefix key masks. Immutable
+ */
+public final class AvailabilityIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int WORDS = (MINUTES_PER_DAY + 63) / 64;
+
+    private final long[] free;
+    private final int freeCount;
+
+    private AvailabilityIndex(long[] free) {
+        this.free = free;
+        int count = 0;
+        for (long word : free) {
+            count += Long.bitCount(word);
+        }
+        this.freeCount = count;
+    }
+
+    /**
+     * @param blockedStarts interval starts, minute of day, inclusive
+     * @param blockedEnds interval ends, minute of day in [0, 1440], exclusive. End before start
+     *                    means interval wraps midnight
+     */
+    public static AvailabilityIndex ofBlocked(int[] blockedStarts, int[] blockedEnds) {
+        if (blockedStarts.length != blockedEnds.length) {
+            throw new IllegalArgumentException("Interval starts and ends should have same length: "
+                    + blockedStarts.length + ", " + blockedEnds.length);
+        }
+        /*difference array: count of intervals covering minute is prefix sum*/
+        final int[] coverDelta = new int[MINUTES_PER_DAY + 1];
+        for (int i = 0; i < blockedStarts.length; i++) {
+            final int start = blockedStarts[i];
+            final int end = blockedEnds[i];
+            if (start < 0 || start >= MINUTES_PER_DAY || end < 0 || end > MINUTES_PER_DAY) {
+                throw new IllegalArgumentException("Invalid interval: " + start + ", " + end);
+            }
+            if (end >= start) {
+                coverDelta[start]++;
+                coverDelta[end]--;
+            } else {
+                coverDelta[start]++;
+                coverDelta[MINUTES_PER_DAY]--;
+                coverDelta[0]++;
+                coverDelta[end]--;
+            }
+        }
+        final long[] free = new long[WORDS];
+        int cover = 0;
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            cover += coverDelta[minute];
+            if (cover == 0) {
+                free[minute >>> 6] |= 1L << minute;
+            }
+        }
+        return new AvailabilityIndex(free);
+    }
+
+    public boolean isFree(int minuteOfDay) {
+        return (free[minuteOfDay >>> 6] & 1L << minuteOfDay) != 0;
+    }
+
+    public int getFreeCount() {
+        return freeCount;
+    }
+
+    @Override
+    public String toString() {
+        return "AvailabilityIndex{" +
+                "freeCount=" + freeCount +
+                '}';
+    }
+}
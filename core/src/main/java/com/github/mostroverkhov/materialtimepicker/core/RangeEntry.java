@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+/**
+ * Entry of start and end times as single sequence of eight digit positions: 0-3 are start HH:MM,
+ * 4-7 are end HH:MM. Entering last digit of one time moves to the first digit of the other.
+ * Unless overnight ranges are allowed, end is kept after start: end digits which can not lead
+ * to time after start are not allowed, and end is moved after start when start changes (this
+ * move is not reported by transitions of {@link #applyDigit(int)})
+ */
+public class RangeEntry {
+
+    /*positions of start or end time*/
+    public static final int TIME_POSITIONS = TimeFormat.HH_MM.getPositions();
+    public static final int POSITIONS = 2 * TIME_POSITIONS;
+
+    private final TimeEntry start;
+    private final TimeEntry end;
+    private final boolean overnightAllowed;
+
+    private TimeEntry current;
+    /*entry which received last digit, corrected by addressSpecialCases*/
+    private TimeEntry entered;
+
+    public RangeEntry(Time start, Time end, boolean overnightAllowed) {
+        this(start, end, overnightAllowed, TimeConstraints.NONE);
+    }
+
+    /*constraints apply to both start and end*/
+    public RangeEntry(Time start, Time end, boolean overnightAllowed, TimeConstraints constraints) {
+        this.start = new TimeEntry(start);
+        this.end = new TimeEntry(end);
+        this.overnightAllowed = overnightAllowed;
+        this.current = this.start;
+        this.entered = this.start;
+
+        if (!overnightAllowed && !allowsRange(constraints)) {
+            throw new IllegalArgumentException("Constraints allow single time, range needs two: " + constraints);
+        }
+        setConstraints(constraints);
+    }
+
+    /*replaces constraints of start and end, both are moved to allowed times. If constraints allow
+    less than two times and overnight ranges are not allowed, end is not kept after start*/
+    public void setConstraints(TimeConstraints constraints) {
+        start.setConstraints(constraints);
+        end.setConstraints(constraints);
+
+        if (!overnightAllowed && allowsRange(constraints)) {
+            /*leaves room for end*/
+            start.setBounds(TimeEntry.MIN_MINUTE_OF_DAY, constraints.getLastAllowed() - 1);
+        } else {
+            start.setBounds(TimeEntry.MIN_MINUTE_OF_DAY, TimeEntry.MAX_MINUTE_OF_DAY);
+        }
+        start.clampToAllowed();
+        if (!overnightAllowed) {
+            updateEndBounds();
+        }
+        end.clampToAllowed();
+    }
+
+    public TimeEntry getStart() {
+        return start;
+    }
+
+    public TimeEntry getEnd() {
+        return end;
+    }
+
+    /*entry of selected position*/
+    public TimeEntry getCurrent() {
+        return current;
+    }
+
+    public boolean isEndCurrent() {
+        return current == end;
+    }
+
+    public boolean isOvernightAllowed() {
+        return overnightAllowed;
+    }
+
+    /*true if end is on the next day: not after start*/
+    public boolean wrapsMidnight() {
+        return end.getTime().getMinuteOfDay() <= start.getTime().getMinuteOfDay();
+    }
+
+    /*selected position, in [0, POSITIONS)*/
+    public int getPosition() {
+        return (current == end ? TIME_POSITIONS : 0) + current.getPosition();
+    }
+
+    public void select(int position) {
+        if (position < 0 || position >= POSITIONS) {
+            throw new IllegalArgumentException("Position should be in [0, " + POSITIONS + "): " + position);
+        }
+        current = position < TIME_POSITIONS ? start : end;
+        current.select(TimeFormat.HH_MM.atPosition(position % TIME_POSITIONS));
+    }
+
+    public int getEnabledDigits() {
+        return current.getEnabledDigits();
+    }
+
+    public boolean isDigitEnabled(int digit) {
+        return current.isDigitEnabled(digit);
+    }
+
+    /*sets value of current position and moves to next one, last position of start is followed
+    by first of end and vice versa. Returns true if value was changed*/
+    public boolean enterDigit(int value) {
+        entered = current;
+        final boolean changed = current.enterDigit(value);
+        if (current.getState() == State.FIRST_HOUR) {
+            current = current == start ? end : start;
+            current.select(State.FIRST_HOUR);
+        }
+        return changed;
+    }
+
+    /*12 hour mode: moves current time to other half of day, end is kept after start. Returns
+    true if current time was changed*/
+    public boolean setPm(boolean pm) {
+        final boolean changed = current.setPm(pm);
+        if (changed && !overnightAllowed && current == start) {
+            updateEndBounds();
+        }
+        return changed;
+    }
+
+    /*enterDigit() followed by addressSpecialCases(). Returns Transition of entry which received
+    digit: its changed positions and next position, and digits enabled for current position,
+    which is in other entry if entry wrapped. End moved after changed start is not part of
+    Transition, as start and end are not shown at once: end is shown from its time when
+    display switches to it*/
+    public int applyDigit(int value) {
+        final TimeEntry entry = current;
+        final int before = entry.getTime().packDigits();
+        enterDigit(value);
+        addressSpecialCases();
+        return Transition.of(entry.changedPositions(before), entry.getPosition(), getEnabledDigits());
+    }
+
+    /*corrects time which received last digit, then keeps end after start. Returns true if
+    start or end was corrected*/
+    public boolean addressSpecialCases() {
+        boolean corrected = entered.addressSpecialCases();
+        if (!overnightAllowed && entered == start) {
+            corrected |= updateEndBounds();
+        }
+        return corrected;
+    }
+
+    private boolean updateEndBounds() {
+        final int minEnd = Math.min(start.getTime().getMinuteOfDay() + 1, TimeEntry.MAX_MINUTE_OF_DAY);
+        end.setBounds(minEnd, TimeEntry.MAX_MINUTE_OF_DAY);
+        return end.clampToAllowed();
+    }
+
+    private static boolean allowsRange(TimeConstraints constraints) {
+        return constraints.getFirstAllowed() != TimeConstraints.NOT_FOUND
+                && constraints.getFirstAllowed() < constraints.getLastAllowed();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+/**
+ * Reveal origin geometry: nearest point of dialog bounds to touch point, in coordinates relative
+ * to dialog. Points are packed into long, see {@link #x(long)}, {@link #y(long)}, so no objects are
+ * allocated
+ */
+public final class RevealGeometry {
+
+    private RevealGeometry() {
+    }
+
+    /*Nearest point of rect [left, right] x [top, bottom] to target, relative to rect's left top:
+    * target itself if inside, nearest edge point if reachable by moving along one axis,
+    * nearest corner otherwise - which is target clamped to rect on both axes*/
+    public static long nearestPoint(int left, int top, int right, int bottom, int targetX, int targetY) {
+        final int x = clamp(targetX, left, right);
+        final int y = clamp(targetY, top, bottom);
+
+        return pack(x - left, y - top);
+    }
+
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public static int x(long point) {
+        return (int) (point >> 32);
+    }
+
+    public static int y(long point) {
+        return (int) point;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return value < min ? min : value > max ? max : value;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+/**
+ * Digit slots of {@link Time}: HH:MM:SS, left to right. Each slot knows which keyboard digits
+ * are allowed for it, given current time. Entry order of slots is given by {@link TimeFormat}.
+ * 12 hour clock has own tables of allowed hour digits: first hour digit 2..9 is single digit
+ * hour, see {@link TimeEntry#enterDigit(int)}
+ */
+public enum State {
+
+    FIRST_HOUR,
+    SEC_HOUR,
+    FIRST_MIN,
+    SEC_MIN,
+    FIRST_SEC,
+    SEC_SEC;
+
+    private static final int DIGITS_0_2 = digitsMask(0, 1, 2);
+    private static final int DIGITS_0_3 = digitsMask(0, 1, 2, 3);
+    private static final int DIGITS_0_5 = digitsMask(0, 1, 2, 3, 4, 5);
+    private static final int DIGITS_0_9 = digitsMask(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    private static final int DIGITS_1_9 = digitsMask(1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+    private static final State[] VALUES = values();
+
+    /*bitmask of keyboard digits allowed for this slot: bit N is set if digit N is allowed*/
+    public int enabledDigits(Time time) {
+        switch (this) {
+            case FIRST_HOUR:
+                return time.isTwelveHour() ? DIGITS_0_9 : DIGITS_0_2;
+            case SEC_HOUR:
+                if (time.isTwelveHour()) {
+                    return time.getFirstHour() == 1 ? DIGITS_0_2 : DIGITS_1_9;
+                }
+                return time.getFirstHour() == 2 ? DIGITS_0_3 : DIGITS_0_9;
+            case FIRST_MIN:
+            case FIRST_SEC:
+                return DIGITS_0_5;
+            default:
+                return DIGITS_0_9;
+        }
+    }
+
+    public int getValue(Time time) {
+        return time.getDigit(ordinal());
+    }
+
+    /*returns true if value of time was changed*/
+    public boolean setTimeValue(Time time, int value) {
+        final boolean changed = time.getDigit(ordinal()) != value;
+        time.setDigit(ordinal(), value);
+
+        return changed;
+    }
+
+    /*slot of digit in HH:MM:SS, 0 based. Same as position in HH:MM and HH:MM:SS formats,
+    see TimeFormat.getPosition() for others*/
+    public int getPosition() {
+        return ordinal();
+    }
+
+    public static State atPosition(int position) {
+        return VALUES[position];
+    }
+
+    public int getSaveState() {
+        return ordinal();
+    }
+
+    public static State getFromSaveState(int state) {
+        return VALUES[state];
+    }
+
+    public static boolean isDigitEnabled(int digitsMask, int digit) {
+        return (digitsMask & (1 << digit)) != 0;
+    }
+
+    public static int digitsMask(int... digits) {
+        int mask = 0;
+        for (int digit : digits) {
+            mask |= 1 << digit;
+        }
+        return mask;
+    }
+}
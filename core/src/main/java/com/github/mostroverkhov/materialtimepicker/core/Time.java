@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import java.util.Arrays;
+
+/**
+ * Time of day as six decimal digits: HH:MM:SS, 24 hours, indexed by {@link State} slot. Seconds
+ * are 0 unless entered with format which has them. In 12 hour mode hour digits are clock hours
+ * 01..12, and half of day is kept by AM/PM flag
+ */
+public class Time {
+
+    private static final int FIRST_HOUR = 0;
+    private static final int SEC_HOUR = 1;
+    private static final int FIRST_MIN = 2;
+    private static final int SEC_MIN = 3;
+    private static final int FIRST_SEC = 4;
+    private static final int SEC_SEC = 5;
+
+    private final int[] digits = new int[TimeFormat.MAX_POSITIONS];
+    private boolean twelveHour;
+    private boolean pm;
+
+    public Time() {
+    }
+
+    public Time(int firstHour, int secHour, int firstMin, int secMin) {
+        digits[FIRST_HOUR] = firstHour;
+        digits[SEC_HOUR] = secHour;
+        digits[FIRST_MIN] = firstMin;
+        digits[SEC_MIN] = secMin;
+    }
+
+    public static Time fromMinuteOfDay(int minuteOfDay) {
+        final Time time = new Time();
+        time.setMinuteOfDay(minuteOfDay);
+        return time;
+    }
+
+    public static Time fromSecondOfDay(int secondOfDay) {
+        final Time time = new Time();
+        time.setSecondOfDay(secondOfDay);
+        return time;
+    }
+
+    /*digit of State slot*/
+    public int getDigit(int slot) {
+        return digits[slot];
+    }
+
+    public void setDigit(int slot, int value) {
+        digits[slot] = value;
+    }
+
+    public int getFirstHour() {
+        return digits[FIRST_HOUR];
+    }
+
+    public void setFirstHour(int firstHour) {
+        digits[FIRST_HOUR] = firstHour;
+    }
+
+    public int getSecHour() {
+        return digits[SEC_HOUR];
+    }
+
+    public void setSecHour(int secHour) {
+        digits[SEC_HOUR] = secHour;
+    }
+
+    public int getFirstMin() {
+        return digits[FIRST_MIN];
+    }
+
+    public void setFirstMin(int firstMin) {
+        digits[FIRST_MIN] = firstMin;
+    }
+
+    public int getSecMin() {
+        return digits[SEC_MIN];
+    }
+
+    public void setSecMin(int secMin) {
+        digits[SEC_MIN] = secMin;
+    }
+
+    public int getFirstSec() {
+        return digits[FIRST_SEC];
+    }
+
+    public void setFirstSec(int firstSec) {
+        digits[FIRST_SEC] = firstSec;
+    }
+
+    public int getSecSec() {
+        return digits[SEC_SEC];
+    }
+
+    public void setSecSec(int secSec) {
+        digits[SEC_SEC] = secSec;
+    }
+
+    public boolean isTwelveHour() {
+        return twelveHour;
+    }
+
+    /*switches hour digits between 24 hour and 12 hour clock, time of day is kept*/
+    public void setTwelveHour(boolean twelveHour) {
+        if (this.twelveHour != twelveHour) {
+            final int minuteOfDay = getMinuteOfDay();
+            this.twelveHour = twelveHour;
+            setMinuteOfDay(minuteOfDay);
+        }
+    }
+
+    public boolean isPm() {
+        return twelveHour ? pm : getHours() >= 12;
+    }
+
+    /*moves time to other half of day, clock digits are kept. 12 hour mode only*/
+    public void setPm(boolean pm) {
+        if (!twelveHour) {
+            throw new IllegalArgumentException("AM/PM is set in 12 hour mode only");
+        }
+        this.pm = pm;
+    }
+
+    /*hour digits as shown: 0..23, or 1..12 in 12 hour mode*/
+    public int getClockHours() {
+        return digits[FIRST_HOUR] * 10 + digits[SEC_HOUR];
+    }
+
+    /*hour of day, 0..23*/
+    public int getHours() {
+        return twelveHour ? toHourOfDay(getClockHours(), pm) : getClockHours();
+    }
+
+    public int getMinutes() {
+        return digits[FIRST_MIN] * 10 + digits[SEC_MIN];
+    }
+
+    public int getSeconds() {
+        return digits[FIRST_SEC] * 10 + digits[SEC_SEC];
+    }
+
+    public int getMinuteOfDay() {
+        return getHours() * 60 + getMinutes();
+    }
+
+    /*seconds are kept*/
+    public void setMinuteOfDay(int minuteOfDay) {
+        if (minuteOfDay < 0 || minuteOfDay >= 24 * 60) {
+            throw new IllegalArgumentException("Minute of day should be in [0, 1440): " + minuteOfDay);
+        }
+        int hours = minuteOfDay / 60;
+        final int mins = minuteOfDay - hours * 60;
+
+        if (twelveHour) {
+            pm = hours >= 12;
+            hours = toClockHours(hours);
+        }
+
+        digits[FIRST_HOUR] = hours / 10;
+        digits[SEC_HOUR] = hours % 10;
+        digits[FIRST_MIN] = mins / 10;
+        digits[SEC_MIN] = mins % 10;
+    }
+
+    public int getSecondOfDay() {
+        return getMinuteOfDay() * 60 + getSeconds();
+    }
+
+    public void setSecondOfDay(int secondOfDay) {
+        if (secondOfDay < 0 || secondOfDay >= 24 * 60 * 60) {
+            throw new IllegalArgumentException("Second of day should be in [0, 86400): " + secondOfDay);
+        }
+        final int secs = secondOfDay % 60;
+        setMinuteOfDay(secondOfDay / 60);
+        digits[FIRST_SEC] = secs / 10;
+        digits[SEC_SEC] = secs % 10;
+    }
+
+    /*12 hour clock: 0 -> 12, 13 -> 1*/
+    public static int toClockHours(int hourOfDay) {
+        final int hours = hourOfDay % 12;
+        return hours == 0 ? 12 : hours;
+    }
+
+    public static int toHourOfDay(int clockHours, boolean pm) {
+        return clockHours % 12 + (pm ? 12 : 0);
+    }
+
+    /*digits of all slots, 4 bits each*/
+    int packDigits() {
+        final int[] digits = this.digits;
+        return digits[FIRST_HOUR]
+                | digits[SEC_HOUR] << 4
+                | digits[FIRST_MIN] << 8
+                | digits[SEC_MIN] << 12
+                | digits[FIRST_SEC] << 16
+                | digits[SEC_SEC] << 20;
+    }
+
+    /*bitmask of slots with digits different from packed ones: nonzero nibbles of difference
+    are folded to their lowest bit, then lowest bits are gathered to bits 0..5*/
+    int changedSlots(int packedDigits) {
+        int diff = packedDigits ^ packDigits();
+        diff |= diff >>> 2;
+        diff |= diff >>> 1;
+        diff &= 0x111111;
+        diff = (diff | diff >>> 3) & 0x030303;
+        return (diff | diff >>> 6 | diff >>> 12) & 0x3F;
+    }
+
+    @Override
+    public String toString() {
+        return "Time{" +
+                "digits=" + Arrays.toString(digits) +
+                ", twelveHour=" + twelveHour +
+                ", pm=" + pm +
+                '}';
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+/**
+ * Allowed times of day: within [min, max] minute of day, multiple of minute step (counted
+ * from midnight) and, optionally, free in {@link AvailabilityIndex}. Compiled once into lookup
+ * tables, so allowed digits of entry position are
+ * single table lookup keyed by digits entered before it, see {@link #enabledDigits(State, Time)}.
+ * Immutable, may be shared
+ */
+public final class TimeConstraints {
+
+    public static final int NOT_FOUND = -1;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int ALL_DIGITS = 0x3FF;
+
+    /*offsets of per-position tables in masks: first hour has single mask, second hour is
+    keyed by first hour, first minute by hours, second minute by hours and first minute*/
+    private static final int SEC_HOUR_BASE = 1;
+    private static final int FIRST_MIN_BASE = SEC_HOUR_BASE + 3;
+    private static final int SEC_MIN_BASE = FIRST_MIN_BASE + 24;
+    /*12 hour clock: first hour is keyed by AM/PM, second hour by AM/PM and first hour.
+    Minute tables are keyed by hour of day, so are shared with 24 hour clock*/
+    private static final int H12_FIRST_HOUR_BASE = SEC_MIN_BASE + 24 * 6;
+    private static final int H12_SEC_HOUR_BASE = H12_FIRST_HOUR_BASE + 2;
+    private static final int MASKS_SIZE = H12_SEC_HOUR_BASE + 2 * 2;
+
+    public static final TimeConstraints NONE = new TimeConstraints(0, MINUTES_PER_DAY - 1, 1, null);
+
+    /*nothing is allowed, e.g. all time is booked*/
+    public static final TimeConstraints EMPTY = new TimeConstraints(0, MINUTES_PER_DAY - 1, 1,
+            AvailabilityIndex.ofBlocked(new int[]{0}, new int[]{MINUTES_PER_DAY}));
+
+    private final int min;
+    private final int max;
+    private final int step;
+    /*null if all minutes are free*/
+    private final AvailabilityIndex availability;
+
+    private final int[] masks = new int[MASKS_SIZE];
+    /*nearest allowed minute at or after / at or before each minute of day, NOT_FOUND if none*/
+    private final short[] next = new short[MINUTES_PER_DAY];
+    private final short[] prev = new short[MINUTES_PER_DAY];
+
+    private TimeConstraints(int min, int max, int step, AvailabilityIndex availability) {
+        this.min = min;
+        this.max = max;
+        this.step = step;
+        this.availability = availability;
+
+        int last = NOT_FOUND;
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            if (isAllowed(minute)) {
+                last = minute;
+                addMasks(minute);
+            }
+            prev[minute] = (short) last;
+        }
+        last = NOT_FOUND;
+        for (int minute = MINUTES_PER_DAY - 1; minute >= 0; minute--) {
+            if (isAllowed(minute)) {
+                last = minute;
+            }
+            next[minute] = (short) last;
+        }
+    }
+
+    /**
+     * @param minMinuteOfDay inclusive
+     * @param maxMinuteOfDay inclusive
+     * @param minuteStep allowed minutes of day are multiples of it
+     * @throws IllegalArgumentException if no time of day satisfies constraints
+     */
+    public static TimeConstraints of(int minMinuteOfDay, int maxMinuteOfDay, int minuteStep) {
+        return of(minMinuteOfDay, maxMinuteOfDay, minuteStep, null);
+    }
+
+    /*only free minutes of availability are allowed*/
+    public static TimeConstraints of(AvailabilityIndex availability) {
+        return of(0, MINUTES_PER_DAY - 1, 1, availability);
+    }
+
+    /**
+     * @param availability only its free minutes are allowed, null if all minutes are free
+     * @throws IllegalArgumentException if no time of day satisfies constraints
+     */
+    public static TimeConstraints of(int minMinuteOfDay,
+                                     int maxMinuteOfDay,
+                                     int minuteStep,
+                                     AvailabilityIndex availability) {
+        if (minMinuteOfDay < 0 || maxMinuteOfDay >= MINUTES_PER_DAY || minMinuteOfDay > maxMinuteOfDay) {
+            throw new IllegalArgumentException("Invalid bounds: " + minMinuteOfDay + ", " + maxMinuteOfDay);
+        }
+        if (minuteStep < 1 || minuteStep >= MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Minute step should be in [1, 1440): " + minuteStep);
+        }
+        if (minMinuteOfDay == 0 && maxMinuteOfDay == MINUTES_PER_DAY - 1 && minuteStep == 1
+                && availability == null) {
+            return NONE;
+        }
+        final TimeConstraints constraints = new TimeConstraints(minMinuteOfDay, maxMinuteOfDay,
+                minuteStep, availability);
+        if (constraints.getFirstAllowed() == NOT_FOUND) {
+            throw new IllegalArgumentException("No time satisfies constraints: " + constraints);
+        }
+        return constraints;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    public AvailabilityIndex getAvailability() {
+        return availability;
+    }
+
+    public boolean isAllowed(int minuteOfDay) {
+        return minuteOfDay >= min && minuteOfDay <= max && minuteOfDay % step == 0
+                && (availability == null || availability.isFree(minuteOfDay));
+    }
+
+    public boolean isEmpty() {
+        return getFirstAllowed() == NOT_FOUND;
+    }
+
+    public int getFirstAllowed() {
+        return next[0];
+    }
+
+    public int getLastAllowed() {
+        return prev[MINUTES_PER_DAY - 1];
+    }
+
+    /*smallest allowed minute of day not less than minuteOfDay, or NOT_FOUND*/
+    public int nextAllowed(int minuteOfDay) {
+        return next[minuteOfDay];
+    }
+
+    /*largest allowed minute of day not greater than minuteOfDay, or NOT_FOUND*/
+    public int prevAllowed(int minuteOfDay) {
+        return prev[minuteOfDay];
+    }
+
+    /*true if some minute in [from, to] is allowed*/
+    public boolean anyAllowed(int from, int to) {
+        if (from > to) {
+            return false;
+        }
+        final int found = next[from];
+        return found != NOT_FOUND && found <= to;
+    }
+
+    /*bitmask of digits of state position which lead to allowed time, given digits of previous
+    positions of time. Digits of next positions are not considered. Seconds are not constrained*/
+    public int enabledDigits(State state, Time time) {
+        switch (state) {
+            case FIRST_HOUR:
+                return time.isTwelveHour()
+                        ? masks[H12_FIRST_HOUR_BASE + (time.isPm() ? 1 : 0)]
+                        : masks[0];
+            case SEC_HOUR:
+                return time.isTwelveHour()
+                        ? masks[H12_SEC_HOUR_BASE + (time.isPm() ? 2 : 0) + time.getFirstHour()]
+                        : masks[SEC_HOUR_BASE + time.getFirstHour()];
+            case FIRST_MIN:
+                return masks[FIRST_MIN_BASE + time.getHours()];
+            case SEC_MIN:
+                return masks[SEC_MIN_BASE + time.getHours() * 6 + time.getFirstMin()];
+            default:
+                /*constraints are per minute, any seconds of allowed minute are allowed*/
+                return ALL_DIGITS;
+        }
+    }
+
+    private void addMasks(int minute) {
+        final int hours = minute / 60;
+        final int mins = minute % 60;
+
+        masks[0] |= 1 << hours / 10;
+        masks[SEC_HOUR_BASE + hours / 10] |= 1 << hours % 10;
+        masks[FIRST_MIN_BASE + hours] |= 1 << mins / 10;
+        masks[SEC_MIN_BASE + hours * 6 + mins / 10] |= 1 << mins % 10;
+
+        /*12 hour clock: first hour 0 leads to 01..09, 2..9 are also single digit hours*/
+        final int half = hours >= 12 ? 1 : 0;
+        final int clockHours = Time.toClockHours(hours);
+        if (clockHours >= 10) {
+            masks[H12_FIRST_HOUR_BASE + half] |= 1 << 1;
+        } else {
+            masks[H12_FIRST_HOUR_BASE + half] |= clockHours >= 2 ? 1 | 1 << clockHours : 1;
+        }
+        masks[H12_SEC_HOUR_BASE + half * 2 + clockHours / 10] |= 1 << clockHours % 10;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeConstraints{" +
+                "min=" + min +
+                ", max=" + max +
+                ", step=" + step +
+                ", availability=" + availability +
+                '}';
+    }
+}
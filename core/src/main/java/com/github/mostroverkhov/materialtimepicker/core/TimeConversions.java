@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+/**
+ * Conversions between {@link Time} and epoch millis of today, in default time zone.
+ * See {@link TimeConverter} for arbitrary zone and reference date
+ */
+public class TimeConversions {
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private TimeConversions() {
+    }
+
+    public static long timeToMillis(Time time) {
+        return timeToMillis(time, System.currentTimeMillis());
+    }
+
+    /*time on the date of referenceMillis, seconds included*/
+    public static long timeToMillis(Time time, long referenceMillis) {
+        return TimeConverter.forDefaultZone().toMillis(referenceMillis, time.getMinuteOfDay())
+                + time.getSeconds() * MILLIS_PER_SECOND;
+    }
+
+    /*minute of day on the date of referenceMillis*/
+    public static long minuteOfDayToMillis(int minuteOfDay, long referenceMillis) {
+        return TimeConverter.forDefaultZone().toMillis(referenceMillis, minuteOfDay);
+    }
+
+    public static Time millisToTime(long millis) {
+        return millisToTime(millis, new Time());
+    }
+
+    /*writes time of millis into provided time, returns it. Seconds of time are kept*/
+    public static Time millisToTime(long millis, Time time) {
+        time.setMinuteOfDay(TimeConverter.forDefaultZone().minuteOfDay(millis));
+        return time;
+    }
+
+    /*second of minute of millis, zone offsets are whole minutes*/
+    public static int secondOfMinute(long millis) {
+        /*floor division, so instants before epoch fall into preceding second*/
+        long seconds = millis / MILLIS_PER_SECOND;
+        if (millis % MILLIS_PER_SECOND < 0) {
+            seconds--;
+        }
+        final int second = (int) (seconds % 60);
+        return second < 0 ? second + 60 : second;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.github.mostroverkhov.materialtimepicker.core.ZoneTransitions.DAY;
+import static com.github.mostroverkhov.materialtimepicker.core.ZoneTransitions.MINUTE;
+
+/**
+ * Conversions between epoch millis and minute of day in a time zone, without {@link java.util.Calendar}.
+ * Uses cached table of zone offset transitions, so conversions are arithmetic and do not allocate.
+ * <p>
+ * DST is resolved explicitly: minute of day falling into a gap is shifted forward by length of the
+ * gap, minute of day falling into an overlap resolves to earlier instant (see
+ * {@link #toMillis(long, int, boolean)} for later one). Instances are thread safe
+ * <p>
+ * Table around current time is kept for converter lifetime, few tables for instants outside it
+ * are kept as well and replaced in round robin order, so alternating far apart instants do not
+ * rebuild tables on every conversion
+ */
+public final class TimeConverter {
+
+    /*table covers this much around instant it was built for*/
+    private static final long WINDOW_BEFORE = 366 * DAY;
+    private static final long WINDOW_AFTER = 2 * 366 * DAY;
+    /*tables for instants outside of table around current time*/
+    private static final int OTHER_WINDOWS = 4;
+
+    /*default zone is read at most this often, as TimeZone.getDefault() returns a copy*/
+    private static final long DEFAULT_ZONE_CHECK_NANOS = 1000L * 1000 * 1000;
+
+    private static final ConcurrentMap<String, TimeConverter> converters = new ConcurrentHashMap<>();
+    private static volatile DefaultZone defaultZone;
+
+    private final TimeZone zone;
+    private final ZoneTransitions transitions;
+    private final AtomicReferenceArray<ZoneTransitions> otherTransitions =
+            new AtomicReferenceArray<>(OTHER_WINDOWS);
+    private final AtomicInteger nextOther = new AtomicInteger();
+
+    private TimeConverter(TimeZone zone, long now) {
+        this.zone = zone;
+        this.transitions = newTransitions(zone, now);
+    }
+
+    /*cached converter for zone, its transitions table is built on first use*/
+    public static TimeConverter forZone(TimeZone zone) {
+        final String id = zone.getID();
+        TimeConverter converter = converters.get(id);
+        if (converter == null) {
+            final TimeConverter newConverter = new TimeConverter((TimeZone) zone.clone(),
+                    System.currentTimeMillis());
+            converter = converters.putIfAbsent(id, newConverter);
+            if (converter == null) {
+                converter = newConverter;
+            }
+        }
+        return converter;
+    }
+
+    /*cached converter for default zone. Change of default zone is picked up within a second,
+    or at once after refreshDefaultZone()*/
+    public static TimeConverter forDefaultZone() {
+        final long now = System.nanoTime();
+        DefaultZone cur = defaultZone;
+        if (cur == null || now - cur.checkedNanos > DEFAULT_ZONE_CHECK_NANOS) {
+            cur = new DefaultZone(forZone(TimeZone.getDefault()), now);
+            defaultZone = cur;
+        }
+        return cur.converter;
+    }
+
+    /*default zone is read again by next forDefaultZone(), e.g. after TimeZone.setDefault()*/
+    public static void refreshDefaultZone() {
+        defaultZone = null;
+    }
+
+    public TimeZone getZone() {
+        return (TimeZone) zone.clone();
+    }
+
+    public int getOffset(long millis) {
+        return transitionsFor(millis).offsetAt(millis);
+    }
+
+    /*minute of day in [0, 1440) of instant, in converter's zone*/
+    public int minuteOfDay(long millis) {
+        final long local = millis + getOffset(millis);
+        return (int) (floorMod(local, DAY) / MINUTE);
+    }
+
+    public int hourOfDay(long millis) {
+        return minuteOfDay(millis) / 60;
+    }
+
+    public int minuteOfHour(long millis) {
+        return minuteOfDay(millis) % 60;
+    }
+
+    /*instant of minuteOfDay on the date of referenceMillis, in converter's zone.
+    * Overlaps are resolved to earlier instant*/
+    public long toMillis(long referenceMillis, int minuteOfDay) {
+        return toMillis(referenceMillis, minuteOfDay, true);
+    }
+
+    public long toMillis(long referenceMillis, int minuteOfDay, boolean preferEarlierOnOverlap) {
+        if (minuteOfDay < 0 || minuteOfDay >= 24 * 60) {
+            throw new IllegalArgumentException("Minute of day should be in [0, 1440): " + minuteOfDay);
+        }
+        final long referenceLocal = referenceMillis + getOffset(referenceMillis);
+        final long local = referenceLocal - floorMod(referenceLocal, DAY) + minuteOfDay * MINUTE;
+
+        return transitionsForLocal(local).localToInstant(local, preferEarlierOnOverlap);
+    }
+
+    private ZoneTransitions transitionsFor(long millis) {
+        if (transitions.contains(millis)) {
+            return transitions;
+        }
+        for (int i = 0; i < OTHER_WINDOWS; i++) {
+            final ZoneTransitions other = otherTransitions.get(i);
+            if (other != null && other.contains(millis)) {
+                return other;
+            }
+        }
+        return putOther(newTransitions(zone, millis));
+    }
+
+    private ZoneTransitions transitionsForLocal(long localMillis) {
+        if (transitions.containsLocal(localMillis)) {
+            return transitions;
+        }
+        for (int i = 0; i < OTHER_WINDOWS; i++) {
+            final ZoneTransitions other = otherTransitions.get(i);
+            if (other != null && other.containsLocal(localMillis)) {
+                return other;
+            }
+        }
+        return putOther(newTransitions(zone, localMillis));
+    }
+
+    private ZoneTransitions putOther(ZoneTransitions other) {
+        final int index = (nextOther.getAndIncrement() & Integer.MAX_VALUE) % OTHER_WINDOWS;
+        otherTransitions.set(index, other);
+        return other;
+    }
+
+    private static ZoneTransitions newTransitions(TimeZone zone, long around) {
+        return ZoneTransitions.build(zone, around - WINDOW_BEFORE, around + WINDOW_AFTER);
+    }
+
+    private static long floorMod(long x, long y) {
+        final long mod = x % y;
+        return mod < 0 ? mod + y : mod;
+    }
+
+    private static class DefaultZone {
+        private final TimeConverter converter;
+        private final long checkedNanos;
+
+        DefaultZone(TimeConverter converter, long checkedNanos) {
+            this.converter = converter;
+            this.checkedNanos = checkedNanos;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+/**
+ * Digit by digit time entry: current {@link Time}, position being entered and validation of
+ * entered values. Positions and their order are given by {@link TimeFormat}, HH:MM by default.
+ * Has no UI dependencies, UI is expected to render its state after each call
+ */
+public class TimeEntry {
+
+    public static final int MIN_MINUTE_OF_DAY = 0;
+    public static final int MAX_MINUTE_OF_DAY = 24 * 60 - 1;
+
+    private static final int HALF_DAY = 12 * 60;
+
+    private final Time time;
+    private TimeFormat format;
+    private State state;
+    /*position which received last digit, null if none*/
+    private State entered;
+
+    private TimeConstraints constraints = TimeConstraints.NONE;
+    /*bounds which change during entry, e.g. end of range*/
+    private int minMinute = MIN_MINUTE_OF_DAY;
+    private int maxMinute = MAX_MINUTE_OF_DAY;
+
+    public TimeEntry(Time time) {
+        this(time, State.FIRST_HOUR);
+    }
+
+    public TimeEntry(Time time, State state) {
+        this(time, TimeFormat.HH_MM, state);
+    }
+
+    public TimeEntry(Time time, TimeFormat format) {
+        this(time, format, format.first());
+    }
+
+    public TimeEntry(Time time, TimeFormat format, State state) {
+        if (time == null) {
+            throw new IllegalArgumentException("Time should not be null");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Format should not be null");
+        }
+        this.time = time;
+        this.format = format;
+        select(state);
+    }
+
+    public Time getTime() {
+        return time;
+    }
+
+    public TimeFormat getFormat() {
+        return format;
+    }
+
+    /*changes positions of entry, first position is selected. Digits of time are kept*/
+    public void setFormat(TimeFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format should not be null");
+        }
+        this.format = format;
+        select(format.first());
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /*position of current state in format*/
+    public int getPosition() {
+        return format.getPosition(state);
+    }
+
+    /*position which received last digit, null if none. Not always the one before current
+    position: single digit hour of 12 hour clock skips second hour*/
+    public State getEntered() {
+        return entered;
+    }
+
+    public void select(State state) {
+        if (state == null || !format.contains(state)) {
+            throw new IllegalArgumentException("State " + state + " is not a position of " + format);
+        }
+        this.state = state;
+        this.entered = null;
+    }
+
+    /**
+     * Restricts entry to allowed times: digits which can not lead to such time are not allowed.
+     * Current time is not changed, it is moved to allowed time by {@link #addressSpecialCases()}
+     */
+    public void setConstraints(TimeConstraints constraints) {
+        if (constraints == null) {
+            throw new IllegalArgumentException("Constraints should not be null");
+        }
+        this.constraints = constraints;
+    }
+
+    public TimeConstraints getConstraints() {
+        return constraints;
+    }
+
+    /**
+     * Restricts entry to times within bounds, in addition to constraints. Unlike constraints,
+     * bounds are not compiled to tables, and are cheap to change. Current time is not changed,
+     * it is moved within bounds by {@link #addressSpecialCases()}
+     *
+     * @param minMinuteOfDay inclusive
+     * @param maxMinuteOfDay inclusive
+     */
+    public void setBounds(int minMinuteOfDay, int maxMinuteOfDay) {
+        if (minMinuteOfDay < MIN_MINUTE_OF_DAY || maxMinuteOfDay > MAX_MINUTE_OF_DAY
+                || minMinuteOfDay > maxMinuteOfDay) {
+            throw new IllegalArgumentException("Invalid bounds: " + minMinuteOfDay + ", " + maxMinuteOfDay);
+        }
+        this.minMinute = minMinuteOfDay;
+        this.maxMinute = maxMinuteOfDay;
+    }
+
+    public int getMinMinute() {
+        return minMinute;
+    }
+
+    public int getMaxMinute() {
+        return maxMinute;
+    }
+
+    /*bitmask of digits allowed for current position: table lookup, unless bounds are set*/
+    public int getEnabledDigits() {
+        final int digits = state.enabledDigits(time) & constraints.enabledDigits(state, time);
+        return isBounded() ? boundedDigits(digits) : digits;
+    }
+
+    public boolean isDigitEnabled(int digit) {
+        return digit >= 0 && digit <= 9 && State.isDigitEnabled(getEnabledDigits(), digit);
+    }
+
+    /*sets value of current position and moves to next one. Returns true if value was changed.
+    12 hour clock: first hour 2..9 is entered as 0 and second hour, then first minute is next*/
+    public boolean enterDigit(int value) {
+        if (!isDigitEnabled(value)) {
+            throw new IllegalArgumentException("Digit " + value + " is not allowed for " + state);
+        }
+        if (state == State.FIRST_HOUR && value >= 2 && time.isTwelveHour()) {
+            final boolean changed = time.getFirstHour() != 0 || time.getSecHour() != value;
+            time.setFirstHour(0);
+            time.setSecHour(value);
+            entered = State.SEC_HOUR;
+            state = format.next(State.SEC_HOUR);
+
+            return changed;
+        }
+        final boolean changed = state.setTimeValue(time, value);
+        entered = state;
+        state = format.next(state);
+
+        return changed;
+    }
+
+    /**
+     * Enters digit and corrects resulting time in one pass: {@link #enterDigit(int)} followed by
+     * {@link #addressSpecialCases()}.
+     *
+     * @return {@link Transition}: changed positions, corrections included, next position and
+     * digits enabled for it
+     */
+    public int applyDigit(int value) {
+        final int before = time.packDigits();
+        enterDigit(value);
+        addressSpecialCases();
+        return Transition.of(changedPositions(before), getPosition(), getEnabledDigits());
+    }
+
+    /*bitmask of positions with digits different from packed ones*/
+    int changedPositions(int packedDigits) {
+        return format.slotsToPositions(time.changedSlots(packedDigits));
+    }
+
+    /*selected hours -> 15, then change first hour to 2 (valid value) yields 25. Address by
+    * changing second hour to 3. On 12 hour clock clock hours 00 are changed to 01 (e.g. 10 with
+    * first hour changed to 0), and clock hours 13..19 are changed to 12 (e.g. 09 with first hour
+    * changed to 1). Then time is moved to allowed one. Returns true if time was corrected*/
+    public boolean addressSpecialCases() {
+        boolean corrected = false;
+        if (time.isTwelveHour()) {
+            if (time.getFirstHour() == 0 && time.getSecHour() == 0) {
+                time.setSecHour(1);
+                corrected = true;
+            } else if (time.getFirstHour() == 1 && time.getSecHour() > 2) {
+                time.setSecHour(2);
+                corrected = true;
+            }
+        } else if (time.getFirstHour() == 2 && time.getSecHour() > 3) {
+            time.setSecHour(3);
+            corrected = true;
+        }
+        return clampToAllowed() || corrected;
+    }
+
+    public boolean isPm() {
+        return time.isPm();
+    }
+
+    /*12 hour mode: moves time to other half of day, then to nearest allowed time in it.
+    Returns true if time was changed*/
+    public boolean setPm(boolean pm) {
+        if (!time.isTwelveHour()) {
+            throw new IllegalArgumentException("AM/PM is set in 12 hour mode only");
+        }
+        if (time.isPm() == pm) {
+            return false;
+        }
+        time.setPm(pm);
+        entered = null;
+        clampToAllowed();
+
+        return true;
+    }
+
+    /*true if some allowed time is within bounds in half of day*/
+    public boolean isPmEnabled(boolean pm) {
+        final int halfStart = pm ? HALF_DAY : 0;
+        return constraints.anyAllowed(Math.max(minMinute, halfStart),
+                Math.min(maxMinute, halfStart + HALF_DAY - 1));
+    }
+
+    /*moves time to nearest allowed time with digits entered last: only digits of positions
+    after last entered one are changed, as entered digit was allowed. 12 hour clock keeps
+    AM/PM if possible. Returns true if time was changed*/
+    public boolean clampToAllowed() {
+        if (constraints == TimeConstraints.NONE && !isBounded()) {
+            return false;
+        }
+        final int minuteOfDay = time.getMinuteOfDay();
+        int from = minMinute;
+        int to = maxMinute;
+        /*hour 12 of 12 hour clock's first hour 1, empty otherwise*/
+        int otherFrom = 1;
+        int otherTo = 0;
+        if (entered != null) {
+            final int digit = entered.getValue(time);
+            from = Math.max(minMinute, minCompletion(entered, digit));
+            to = Math.min(maxMinute, maxCompletion(entered, digit));
+            if (splitsCompletion(entered, digit)) {
+                otherFrom = Math.max(minMinute, halfStart());
+                otherTo = Math.min(maxMinute, halfStart() + 59);
+            }
+        } else if (time.isTwelveHour()) {
+            from = Math.max(minMinute, halfStart());
+            to = Math.min(maxMinute, halfStart() + HALF_DAY - 1);
+        }
+        if (isAllowedWithin(minuteOfDay, from, to) || isAllowedWithin(minuteOfDay, otherFrom, otherTo)) {
+            return false;
+        }
+        int allowed = nearestAllowed(minuteOfDay, from, to);
+        if (allowed == TimeConstraints.NOT_FOUND) {
+            allowed = nearestAllowed(minuteOfDay, otherFrom, otherTo);
+        }
+        if (allowed == TimeConstraints.NOT_FOUND) {
+            /*nothing is allowed with entered digits or AM/PM, possible after bounds change only*/
+            allowed = constraints.nextAllowed(minMinute);
+            if (allowed == TimeConstraints.NOT_FOUND || allowed > maxMinute) {
+                return false;
+            }
+        }
+        time.setMinuteOfDay(allowed);
+        return true;
+    }
+
+    private boolean isAllowedWithin(int minuteOfDay, int from, int to) {
+        return minuteOfDay >= from && minuteOfDay <= to && constraints.isAllowed(minuteOfDay);
+    }
+
+    /*allowed minute in [from, to] nearest to minuteOfDay, or NOT_FOUND*/
+    private int nearestAllowed(int minuteOfDay, int from, int to) {
+        if (from > to) {
+            return TimeConstraints.NOT_FOUND;
+        }
+        final int clamped = Math.min(Math.max(minuteOfDay, from), to);
+        int allowed = constraints.nextAllowed(clamped);
+        if (allowed == TimeConstraints.NOT_FOUND || allowed > to) {
+            allowed = constraints.prevAllowed(clamped);
+        }
+        return allowed == TimeConstraints.NOT_FOUND || allowed < from ? TimeConstraints.NOT_FOUND : allowed;
+    }
+
+    private boolean isBounded() {
+        return minMinute > MIN_MINUTE_OF_DAY || maxMinute < MAX_MINUTE_OF_DAY;
+    }
+
+    /*completions of entered prefix and digit are contiguous minutes range, digit is kept if
+    some allowed minute of it is within bounds*/
+    private int boundedDigits(int digits) {
+        for (int digit = 0; digit <= 9; digit++) {
+            if (State.isDigitEnabled(digits, digit) && !anyAllowedCompletion(state, digit)) {
+                digits &= ~(1 << digit);
+            }
+        }
+        return digits;
+    }
+
+    private boolean anyAllowedCompletion(State state, int digit) {
+        if (constraints.anyAllowed(
+                Math.max(minMinute, minCompletion(state, digit)),
+                Math.min(maxMinute, maxCompletion(state, digit)))) {
+            return true;
+        }
+        return splitsCompletion(state, digit) && constraints.anyAllowed(
+                Math.max(minMinute, halfStart()),
+                Math.min(maxMinute, halfStart() + 59));
+    }
+
+    /*first hour 1 of 12 hour clock leads to 10, 11 and 12, which is first hour of half of day:
+    completions are not contiguous. Min/max completions are 10..11, 12 is checked separately*/
+    private boolean splitsCompletion(State state, int digit) {
+        return state == State.FIRST_HOUR && digit == 1 && time.isTwelveHour();
+    }
+
+    private int halfStart() {
+        return time.isPm() ? HALF_DAY : 0;
+    }
+
+    private int hourOfDay(int clockHours) {
+        return time.isTwelveHour() ? Time.toHourOfDay(clockHours, time.isPm()) : clockHours;
+    }
+
+    /*12 hour clock first hour: 0 leads to 01..09, 1 to 10..11 (and 12), 2..9 are single digit hours*/
+    private int firstHourMin(int digit) {
+        return digit == 0 ? 1 : digit == 1 ? 10 : digit;
+    }
+
+    private int firstHourMax(int digit) {
+        return digit == 0 ? 9 : digit == 1 ? 11 : digit;
+    }
+
+    private int minCompletion(State state, int digit) {
+        switch (state) {
+            case FIRST_HOUR:
+                return time.isTwelveHour()
+                        ? halfStart() + firstHourMin(digit) * 60
+                        : digit * 10 * 60;
+            case SEC_HOUR:
+                return hourOfDay(time.getFirstHour() * 10 + digit) * 60;
+            case FIRST_MIN:
+                return time.getHours() * 60 + digit * 10;
+            case SEC_MIN:
+                return time.getHours() * 60 + time.getFirstMin() * 10 + digit;
+            default:
+                /*seconds: minute is entered*/
+                return time.getMinuteOfDay();
+        }
+    }
+
+    private int maxCompletion(State state, int digit) {
+        switch (state) {
+            case FIRST_HOUR:
+                return time.isTwelveHour()
+                        ? halfStart() + firstHourMax(digit) * 60 + 59
+                        : (digit == 2 ? 23 : digit * 10 + 9) * 60 + 59;
+            case SEC_HOUR:
+                return hourOfDay(time.getFirstHour() * 10 + digit) * 60 + 59;
+            case FIRST_MIN:
+                return time.getHours() * 60 + digit * 10 + 9;
+            case SEC_MIN:
+                return time.getHours() * 60 + time.getFirstMin() * 10 + digit;
+            default:
+                /*seconds: minute is entered*/
+                return time.getMinuteOfDay();
+        }
+    }
+}
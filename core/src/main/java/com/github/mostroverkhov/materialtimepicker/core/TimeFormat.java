@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+/**
+ * Digit positions of entered time, in entry order: HH:MM, HH:MM:SS, or MM:SS for durations.
+ * Entry, display and save/restore of time are driven by position table of format: next
+ * position and position of state are array lookups, so longer formats add no per keystroke work
+ */
+public enum TimeFormat {
+
+    HH_MM(State.FIRST_HOUR, State.SEC_HOUR, State.FIRST_MIN, State.SEC_MIN),
+
+    HH_MM_SS(State.FIRST_HOUR, State.SEC_HOUR, State.FIRST_MIN, State.SEC_MIN,
+            State.FIRST_SEC, State.SEC_SEC),
+
+    MM_SS(State.FIRST_MIN, State.SEC_MIN, State.FIRST_SEC, State.SEC_SEC);
+
+    public static final int NO_POSITION = -1;
+    public static final int MAX_POSITIONS = 6;
+
+    private final State[] states;
+    /*position of each state, indexed by state ordinal: NO_POSITION if not in format*/
+    private final int[] positions = new int[MAX_POSITIONS];
+    /*next state in entry order, last position is followed by first*/
+    private final State[] next = new State[MAX_POSITIONS];
+
+    TimeFormat(State... states) {
+        this.states = states;
+
+        for (int i = 0; i < MAX_POSITIONS; i++) {
+            positions[i] = NO_POSITION;
+        }
+        for (int pos = 0; pos < states.length; pos++) {
+            positions[states[pos].ordinal()] = pos;
+            next[states[pos].ordinal()] = states[(pos + 1) % states.length];
+        }
+    }
+
+    public int getPositions() {
+        return states.length;
+    }
+
+    public State atPosition(int position) {
+        return states[position];
+    }
+
+    /*position of state in entry order, NO_POSITION if format has no such state*/
+    public int getPosition(State state) {
+        return positions[state.ordinal()];
+    }
+
+    public boolean contains(State state) {
+        return positions[state.ordinal()] != NO_POSITION;
+    }
+
+    /*positions of format are consecutive slots of HH:MM:SS, so slots bitmask maps to positions
+    bitmask by shift*/
+    int slotsToPositions(int slots) {
+        return slots >>> states[0].ordinal() & (1 << states.length) - 1;
+    }
+
+    public State first() {
+        return states[0];
+    }
+
+    public State next(State state) {
+        return next[state.ordinal()];
+    }
+
+    public boolean hasHours() {
+        return contains(State.FIRST_HOUR);
+    }
+
+    public boolean hasSeconds() {
+        return contains(State.FIRST_SEC);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import java.util.TimeZone;
+
+/**
+ * Accessors of time of day passed around as primitive minute of day, see
+ * {@code MaterialTimePicker.TimeOfDayCallbacks}. Nothing is allocated: fields are arithmetic,
+ * epoch millis are computed only on request, on reference date in given zone
+ */
+public final class TimeOfDay {
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private TimeOfDay() {
+    }
+
+    /*hour of day in [0, 24)*/
+    public static int hourOf(int minuteOfDay) {
+        return minuteOfDay / 60;
+    }
+
+    /*minute of hour in [0, 60)*/
+    public static int minuteOf(int minuteOfDay) {
+        return minuteOfDay % 60;
+    }
+
+    /*hour on 12 hour clock in [1, 12]*/
+    public static int clockHourOf(int minuteOfDay) {
+        return Time.toClockHours(hourOf(minuteOfDay));
+    }
+
+    public static boolean isPm(int minuteOfDay) {
+        return minuteOfDay >= 12 * 60;
+    }
+
+    public static int minuteOfDay(int hours, int minutes) {
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            throw new IllegalArgumentException("Hours should be in [0, 23], minutes in [0, 59]: "
+                    + hours + ":" + minutes);
+        }
+        return hours * 60 + minutes;
+    }
+
+    /*instant of minute of day and seconds on the date of referenceMillis, in zone. DST is
+    resolved as in TimeConverter.toMillis()*/
+    public static long toMillis(int minuteOfDay, int seconds, long referenceMillis, TimeZone zone) {
+        if (seconds < 0 || seconds > 59) {
+            throw new IllegalArgumentException("Seconds should be in [0, 59]: " + seconds);
+        }
+        return TimeConverter.forZone(zone).toMillis(referenceMillis, minuteOfDay)
+                + seconds * MILLIS_PER_SECOND;
+    }
+
+    public static long toMillis(int minuteOfDay, long referenceMillis, TimeZone zone) {
+        return toMillis(minuteOfDay, 0, referenceMillis, zone);
+    }
+}
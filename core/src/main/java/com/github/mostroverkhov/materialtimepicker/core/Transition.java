@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+/**
+ * Result of keystroke, packed into int so keystroke path does not allocate: positions whose
+ * digits were changed by keystroke and its corrections, position entered next, and digits
+ * enabled for it. UI applies it as is: only changed positions are redrawn, and corrections are
+ * shown together with entered digit. See {@link TimeEntry#applyDigit(int)}
+ */
+public final class Transition {
+
+    private static final int CHANGED_BITS = TimeFormat.MAX_POSITIONS;
+    private static final int CHANGED_MASK = (1 << CHANGED_BITS) - 1;
+    private static final int POSITION_SHIFT = CHANGED_BITS;
+    private static final int POSITION_MASK = 0x7;
+    private static final int DIGITS_SHIFT = POSITION_SHIFT + 3;
+    private static final int DIGITS_MASK = 0x3FF;
+
+    private Transition() {
+    }
+
+    static int of(int changedPositions, int nextPosition, int enabledDigits) {
+        return changedPositions
+                | nextPosition << POSITION_SHIFT
+                | enabledDigits << DIGITS_SHIFT;
+    }
+
+    /*bitmask of positions of format: bit N is set if digit at position N was changed*/
+    public static int getChangedPositions(int transition) {
+        return transition & CHANGED_MASK;
+    }
+
+    public static boolean isChanged(int transition, int position) {
+        return (transition & 1 << position) != 0;
+    }
+
+    public static int getNextPosition(int transition) {
+        return transition >>> POSITION_SHIFT & POSITION_MASK;
+    }
+
+    /*bitmask of digits enabled for next position, as in TimeEntry.getEnabledDigits()*/
+    public static int getEnabledDigits(int transition) {
+        return transition >>> DIGITS_SHIFT & DIGITS_MASK;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * Precomputed offset transitions of a time zone within a window of instants. Immutable, lookups
+ * are binary searches over primitive arrays and do not allocate
+ */
+final class ZoneTransitions {
+
+    static final long MINUTE = 60 * 1000L;
+    static final long HOUR = 60 * MINUTE;
+    static final long DAY = 24 * HOUR;
+
+    /*zone offsets are within [-18h, 18h]*/
+    static final long MAX_OFFSET = 18 * HOUR;
+
+    /*offset changes reverted within one scan step are not detected*/
+    private static final long SCAN_STEP = DAY;
+
+    private final long windowStart;
+    private final long windowEnd;
+
+    /*instants of offset changes, ascending*/
+    private final long[] transitions;
+
+    /*offsets[i] is in effect in [transitions[i - 1], transitions[i]), offsets.length == transitions.length + 1*/
+    private final int[] offsets;
+
+    private ZoneTransitions(long windowStart, long windowEnd, long[] transitions, int[] offsets) {
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.transitions = transitions;
+        this.offsets = offsets;
+    }
+
+    /*scans offsets of zone in [windowStart, windowEnd) and finds instants of their change*/
+    static ZoneTransitions build(TimeZone zone, long windowStart, long windowEnd) {
+        if (windowEnd <= windowStart) {
+            throw new IllegalArgumentException("Window end should be after window start");
+        }
+        long[] transitions = new long[8];
+        int[] offsets = new int[9];
+        int count = 0;
+
+        int offset = zone.getOffset(windowStart);
+        offsets[0] = offset;
+
+        long t = windowStart;
+        while (t < windowEnd) {
+            final long next = Math.min(t + SCAN_STEP, windowEnd);
+
+            if (zone.getOffset(next) == offset) {
+                t = next;
+            } else {
+                if (count == transitions.length) {
+                    transitions = Arrays.copyOf(transitions, count * 2);
+                    offsets = Arrays.copyOf(offsets, count * 2 + 1);
+                }
+                final long transition = findTransition(zone, t, next, offset);
+                offset = zone.getOffset(transition);
+
+                transitions[count] = transition;
+                offsets[count + 1] = offset;
+                count++;
+                /*continue from transition: there may be another one before next*/
+                t = transition;
+            }
+        }
+        return new ZoneTransitions(windowStart,
+                windowEnd,
+                Arrays.copyOf(transitions, count),
+                Arrays.copyOf(offsets, count + 1));
+    }
+
+    /*first instant in (from, to] with offset different from fromOffset*/
+    private static long findTransition(TimeZone zone, long from, long to, int fromOffset) {
+        long lo = from;
+        long hi = to;
+        while (hi - lo > 1) {
+            final long mid = lo + (hi - lo) / 2;
+            if (zone.getOffset(mid) == fromOffset) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return hi;
+    }
+
+    boolean contains(long instant) {
+        return instant >= windowStart && instant < windowEnd;
+    }
+
+    /*true if local time (instant + offset) can be resolved from this window alone*/
+    boolean containsLocal(long localMillis) {
+        return contains(localMillis - MAX_OFFSET) && contains(localMillis + MAX_OFFSET);
+    }
+
+    int offsetAt(long instant) {
+        return offsets[intervalOf(instant)];
+    }
+
+    int transitionCount() {
+        return transitions.length;
+    }
+
+    /*index of interval of constant offset containing instant*/
+    private int intervalOf(long instant) {
+        int lo = 0;
+        int hi = transitions.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (transitions[mid] <= instant) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private long intervalStart(int interval) {
+        return interval == 0 ? Long.MIN_VALUE : transitions[interval - 1];
+    }
+
+    private long intervalEnd(int interval) {
+        return interval == transitions.length ? Long.MAX_VALUE : transitions[interval];
+    }
+
+    /*Instant of local time. Local time may be ambiguous:
+    * gap (offset increases, e.g. DST start): local time does not exist, it is shifted forward by
+    * length of the gap - resolved with offset before transition;
+    * overlap (offset decreases, e.g. DST end): local time occurs twice, earlier or later instant
+    * is returned*/
+    long localToInstant(long localMillis, boolean preferEarlier) {
+
+        final int first = intervalOf(localMillis - MAX_OFFSET);
+        final int last = intervalOf(localMillis + MAX_OFFSET);
+
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+
+        for (int i = first; i <= last; i++) {
+            final long instant = localMillis - offsets[i];
+            if (instant >= intervalStart(i) && instant < intervalEnd(i)) {
+                earliest = Math.min(earliest, instant);
+                latest = Math.max(latest, instant);
+            }
+        }
+        if (earliest != Long.MAX_VALUE) {
+            return preferEarlier ? earliest : latest;
+        }
+        /*gap: local time is after end of interval i with its offset, and before start of i + 1*/
+        for (int i = first; i < last; i++) {
+            final long instant = localMillis - offsets[i];
+            if (instant >= intervalEnd(i) && localMillis - offsets[i + 1] < intervalStart(i + 1)) {
+                return instant;
+            }
+        }
+        throw new IllegalStateException("Unresolvable local time: " + localMillis);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link AvailabilityIndex} against naive scan of blocked intervals
+ */
+public class AvailabilityIndexTest {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @Test
+    public void randomIntervalsMatchNaiveScan() {
+        final Random random = new Random(3);
+        for (int it = 0; it < 2000; it++) {
+            final int count = random.nextInt(200);
+            final int[] starts = new int[count];
+            final int[] ends = new int[count];
+            for (int i = 0; i < count; i++) {
+                starts[i] = random.nextInt(MINUTES_PER_DAY);
+                ends[i] = random.nextInt(MINUTES_PER_DAY + 1);
+            }
+            assertMatchesNaiveScan(starts, ends);
+        }
+    }
+
+    @Test
+    public void intervalsAcrossMidnight() {
+        assertMatchesNaiveScan(new int[]{22 * 60, 0}, new int[]{2 * 60, 0});
+    }
+
+    @Test
+    public void wholeDay() {
+        final AvailabilityIndex index = AvailabilityIndex.ofBlocked(new int[]{0}, new int[]{MINUTES_PER_DAY});
+        assertEquals(0, index.getFreeCount());
+    }
+
+    @Test
+    public void noIntervals() {
+        final AvailabilityIndex index = AvailabilityIndex.ofBlocked(new int[0], new int[0]);
+        assertEquals(MINUTES_PER_DAY, index.getFreeCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentLengths() {
+        AvailabilityIndex.ofBlocked(new int[1], new int[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void endOutOfDay() {
+        AvailabilityIndex.ofBlocked(new int[]{0}, new int[]{MINUTES_PER_DAY + 1});
+    }
+
+    private static void assertMatchesNaiveScan(int[] starts, int[] ends) {
+        final boolean[] blocked = new boolean[MINUTES_PER_DAY];
+        for (int i = 0; i < starts.length; i++) {
+            if (ends[i] >= starts[i]) {
+                block(blocked, starts[i], ends[i]);
+            } else {
+                /*wraps midnight*/
+                block(blocked, starts[i], MINUTES_PER_DAY);
+                block(blocked, 0, ends[i]);
+            }
+        }
+        final AvailabilityIndex index = AvailabilityIndex.ofBlocked(starts, ends);
+        int free = 0;
+        for (int m = 0; m < MINUTES_PER_DAY; m++) {
+            assertEquals("minute " + m, !blocked[m], index.isFree(m));
+            free += blocked[m] ? 0 : 1;
+        }
+        assertEquals(free, index.getFreeCount());
+    }
+
+    private static void block(boolean[] blocked, int from, int to) {
+        for (int m = from; m < to; m++) {
+            blocked[m] = true;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link RangeEntry} sessions: end is kept after start, positions wrap between start and end
+ */
+public class RangeEntryTest {
+
+    @Test
+    public void randomSessionsKeepEndAfterStart() {
+        final Random random = new Random(1);
+        for (int session = 0; session < 20000; session++) {
+            final RangeEntry entry = new RangeEntry(
+                    Time.fromMinuteOfDay(random.nextInt(24 * 60)),
+                    Time.fromMinuteOfDay(random.nextInt(24 * 60)),
+                    false);
+            for (int keystroke = 0; keystroke < 20; keystroke++) {
+                if (random.nextInt(6) == 0) {
+                    entry.select(random.nextInt(RangeEntry.POSITIONS));
+                    entry.addressSpecialCases();
+                }
+                final int mask = entry.getEnabledDigits();
+                assertTrue("no digits at " + entry.getPosition(), mask != 0);
+
+                entry.applyDigit(randomDigit(random, mask));
+
+                final Time start = entry.getStart().getTime();
+                final Time end = entry.getEnd().getTime();
+                assertTrue(start.getMinuteOfDay() < end.getMinuteOfDay());
+                assertTrue(start.getHours() <= 23 && end.getHours() <= 23);
+                assertFalse(entry.wrapsMidnight());
+            }
+        }
+    }
+
+    @Test
+    public void randomSessionsWithConstraints() {
+        final Random random = new Random(2);
+        final TimeConstraints constraints = TimeConstraints.of(8 * 60, 18 * 60, 15);
+        for (int session = 0; session < 5000; session++) {
+            final RangeEntry entry = new RangeEntry(
+                    Time.fromMinuteOfDay(random.nextInt(24 * 60)),
+                    Time.fromMinuteOfDay(random.nextInt(24 * 60)),
+                    false,
+                    constraints);
+            for (int keystroke = 0; keystroke < 20; keystroke++) {
+                entry.applyDigit(randomDigit(random, entry.getEnabledDigits()));
+
+                final int start = entry.getStart().getTime().getMinuteOfDay();
+                final int end = entry.getEnd().getTime().getMinuteOfDay();
+                assertTrue(constraints.isAllowed(start));
+                assertTrue(constraints.isAllowed(end));
+                assertTrue(start < end);
+            }
+        }
+    }
+
+    @Test
+    public void lastStartDigitMovesToEnd() {
+        final RangeEntry entry = new RangeEntry(Time.fromMinuteOfDay(9 * 60), Time.fromMinuteOfDay(17 * 60), false);
+
+        entry.applyDigit(1);
+        entry.applyDigit(0);
+        entry.applyDigit(0);
+        final int transition = entry.applyDigit(0);
+
+        assertSame(entry.getEnd(), entry.getCurrent());
+        assertEquals(RangeEntry.TIME_POSITIONS, entry.getPosition());
+        assertEquals(0, Transition.getNextPosition(transition));
+        assertEquals(entry.getEnd().getEnabledDigits(), Transition.getEnabledDigits(transition));
+    }
+
+    @Test
+    public void endIsMovedAfterChangedStart() {
+        final RangeEntry entry = new RangeEntry(Time.fromMinuteOfDay(9 * 60), Time.fromMinuteOfDay(10 * 60), false);
+
+        /*start 19:00*/
+        final int transition = entry.applyDigit(1);
+
+        assertEquals(19 * 60, entry.getStart().getTime().getMinuteOfDay());
+        assertTrue(entry.getEnd().getTime().getMinuteOfDay() > 19 * 60);
+        /*end move is not reported, see applyDigit()*/
+        assertEquals(1, Transition.getChangedPositions(transition));
+    }
+
+    @Test
+    public void overnightRangeWrapsMidnight() {
+        final RangeEntry entry = new RangeEntry(Time.fromMinuteOfDay(22 * 60), Time.fromMinuteOfDay(6 * 60), true);
+
+        assertTrue(entry.wrapsMidnight());
+        assertEquals(6 * 60, entry.getEnd().getTime().getMinuteOfDay());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleAllowedTimeIsRejected() {
+        new RangeEntry(new Time(), new Time(), false, TimeConstraints.of(10 * 60, 10 * 60, 1));
+    }
+
+    @Test
+    public void singleAllowedTimeWithOvernight() {
+        final RangeEntry entry = new RangeEntry(new Time(), new Time(), true, TimeConstraints.of(10 * 60, 10 * 60, 1));
+
+        assertEquals(10 * 60, entry.getStart().getTime().getMinuteOfDay());
+        assertEquals(10 * 60, entry.getEnd().getTime().getMinuteOfDay());
+    }
+
+    private static int randomDigit(Random random, int mask) {
+        int digit;
+        do {
+            digit = random.nextInt(10);
+        } while ((mask & 1 << digit) == 0);
+        return digit;
+    }
+}
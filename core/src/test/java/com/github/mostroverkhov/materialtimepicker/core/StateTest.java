@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Digits allowed per slot on 24 and 12 hour clocks
+ */
+public class StateTest {
+
+    @Test
+    public void firstHourOf24HourClock() {
+        assertEquals(State.digitsMask(0, 1, 2), State.FIRST_HOUR.enabledDigits(new Time()));
+    }
+
+    @Test
+    public void secHourAfterFirstHour2() {
+        assertEquals(State.digitsMask(0, 1, 2, 3), State.SEC_HOUR.enabledDigits(new Time(2, 0, 0, 0)));
+        assertEquals(0x3FF, State.SEC_HOUR.enabledDigits(new Time(1, 0, 0, 0)));
+    }
+
+    @Test
+    public void hoursOf12HourClock() {
+        final Time time = Time.fromMinuteOfDay(10 * 60);
+        time.setTwelveHour(true);
+
+        assertEquals(0x3FF, State.FIRST_HOUR.enabledDigits(time));
+        assertEquals(State.digitsMask(0, 1, 2), State.SEC_HOUR.enabledDigits(time));
+
+        time.setFirstHour(0);
+        assertEquals(State.digitsMask(1, 2, 3, 4, 5, 6, 7, 8, 9), State.SEC_HOUR.enabledDigits(time));
+    }
+
+    @Test
+    public void firstDigitsOfMinutesAndSeconds() {
+        final Time time = new Time();
+        assertEquals(State.digitsMask(0, 1, 2, 3, 4, 5), State.FIRST_MIN.enabledDigits(time));
+        assertEquals(State.digitsMask(0, 1, 2, 3, 4, 5), State.FIRST_SEC.enabledDigits(time));
+        assertEquals(0x3FF, State.SEC_MIN.enabledDigits(time));
+        assertEquals(0x3FF, State.SEC_SEC.enabledDigits(time));
+    }
+
+    @Test
+    public void valueOfSlot() {
+        final Time time = Time.fromSecondOfDay(((13 * 60) + 47) * 60 + 29);
+        final int[] expected = {1, 3, 4, 7, 2, 9};
+        for (State state : State.values()) {
+            assertEquals(expected[state.ordinal()], state.getValue(time));
+        }
+        assertEquals(true, State.SEC_MIN.setTimeValue(time, 5));
+        assertEquals(false, State.SEC_MIN.setTimeValue(time, 5));
+        assertEquals(13 * 60 + 45, time.getMinuteOfDay());
+    }
+
+    @Test
+    public void saveStateRoundTrip() {
+        for (State state : State.values()) {
+            assertSame(state, State.getFromSaveState(state.getSaveState()));
+            assertSame(state, State.atPosition(state.getPosition()));
+        }
+    }
+}
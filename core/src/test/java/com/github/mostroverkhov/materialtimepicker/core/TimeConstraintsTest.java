@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Lookup tables of {@link TimeConstraints} against brute force enumeration of allowed times
+ */
+public class TimeConstraintsTest {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final TimeConstraints[] CONSTRAINTS = {
+            TimeConstraints.NONE,
+            TimeConstraints.of(8 * 60, 18 * 60, 15),
+            TimeConstraints.of(0, MINUTES_PER_DAY - 1, 7),
+            TimeConstraints.of(13 * 60 + 5, 13 * 60 + 50, 5),
+            TimeConstraints.of(0, 59, 1),
+            TimeConstraints.of(11 * 60, 13 * 60, 30),
+            TimeConstraints.of(0, MINUTES_PER_DAY - 1, 1,
+                    AvailabilityIndex.ofBlocked(new int[]{0, 9 * 60 + 30, 22 * 60}, new int[]{8 * 60, 12 * 60, 1}))};
+
+    @Test
+    public void masksOf24HourClock() {
+        for (TimeConstraints constraints : CONSTRAINTS) {
+            assertMasks(constraints, false);
+        }
+    }
+
+    @Test
+    public void masksOf12HourClock() {
+        for (TimeConstraints constraints : CONSTRAINTS) {
+            assertMasks(constraints, true);
+        }
+    }
+
+    @Test
+    public void nearestAllowed() {
+        for (TimeConstraints constraints : CONSTRAINTS) {
+            for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                int next = TimeConstraints.NOT_FOUND;
+                for (int m = minute; m < MINUTES_PER_DAY && next == TimeConstraints.NOT_FOUND; m++) {
+                    next = isAllowed(constraints, m) ? m : next;
+                }
+                int prev = TimeConstraints.NOT_FOUND;
+                for (int m = minute; m >= 0 && prev == TimeConstraints.NOT_FOUND; m--) {
+                    prev = isAllowed(constraints, m) ? m : prev;
+                }
+                assertEquals(constraints + " " + minute, next, constraints.nextAllowed(minute));
+                assertEquals(constraints + " " + minute, prev, constraints.prevAllowed(minute));
+            }
+        }
+    }
+
+    @Test
+    public void randomEntrySessionsStayAllowed() {
+        final Random random = new Random(2);
+        final int[] steps = {1, 5, 15, 30, 7, 45};
+        for (int session = 0; session < 2000; session++) {
+            final int min = random.nextInt(MINUTES_PER_DAY);
+            final int max = min + random.nextInt(MINUTES_PER_DAY - min);
+            final int step = steps[random.nextInt(steps.length)];
+            final TimeConstraints constraints;
+            try {
+                constraints = TimeConstraints.of(min, max, step);
+            } catch (IllegalArgumentException e) {
+                /*no multiple of step within bounds*/
+                continue;
+            }
+            final Time time = Time.fromMinuteOfDay(random.nextInt(MINUTES_PER_DAY));
+            time.setTwelveHour(random.nextBoolean());
+            final TimeEntry entry = new TimeEntry(time);
+            entry.setConstraints(constraints);
+            entry.clampToAllowed();
+
+            for (int keystroke = 0; keystroke < 30; keystroke++) {
+                if (random.nextInt(5) == 0) {
+                    entry.select(State.atPosition(random.nextInt(4)));
+                }
+                final int mask = entry.getEnabledDigits();
+                assertTrue(mask != 0);
+                int digit;
+                do {
+                    digit = random.nextInt(10);
+                } while ((mask & 1 << digit) == 0);
+
+                entry.applyDigit(digit);
+
+                assertTrue(constraints + " " + time, constraints.isAllowed(time.getMinuteOfDay()));
+            }
+        }
+    }
+
+    /*digit is enabled iff some allowed time has digits entered before position (and half of day
+    on 12 hour clock), and digit at it*/
+    private static void assertMasks(TimeConstraints constraints, boolean twelveHour) {
+        final int[][] allowedDigits = new int[MINUTES_PER_DAY][];
+        final boolean[] allowedPm = new boolean[MINUTES_PER_DAY];
+        int allowedCount = 0;
+        for (int m = 0; m < MINUTES_PER_DAY; m++) {
+            if (isAllowed(constraints, m)) {
+                final Time time = time(m, twelveHour);
+                allowedDigits[allowedCount] = digits(time);
+                allowedPm[allowedCount] = time.isPm();
+                allowedCount++;
+            }
+        }
+        for (int m = 0; m < MINUTES_PER_DAY; m++) {
+            final Time current = time(m, twelveHour);
+            final int[] currentDigits = digits(current);
+            for (State state : new State[]{State.FIRST_HOUR, State.SEC_HOUR, State.FIRST_MIN, State.SEC_MIN}) {
+                final int pos = state.getPosition();
+                int expected = 0;
+                for (int i = 0; i < allowedCount; i++) {
+                    boolean samePrefix = !twelveHour || allowedPm[i] == current.isPm();
+                    for (int p = 0; p < pos && samePrefix; p++) {
+                        samePrefix = allowedDigits[i][p] == currentDigits[p];
+                    }
+                    if (samePrefix) {
+                        expected |= 1 << allowedDigits[i][pos];
+                        /*12 hour clock: 2..9 as first hour digit enters single digit hour*/
+                        if (twelveHour && pos == 0 && allowedDigits[i][0] == 0 && allowedDigits[i][1] >= 2) {
+                            expected |= 1 << allowedDigits[i][1];
+                        }
+                    }
+                }
+                assertEquals(constraints + " " + current + " " + state,
+                        expected,
+                        constraints.enabledDigits(state, current));
+            }
+        }
+    }
+
+    private static boolean isAllowed(TimeConstraints constraints, int minuteOfDay) {
+        final AvailabilityIndex availability = constraints.getAvailability();
+        return minuteOfDay >= constraints.getMin()
+                && minuteOfDay <= constraints.getMax()
+                && minuteOfDay % constraints.getStep() == 0
+                && (availability == null || availability.isFree(minuteOfDay));
+    }
+
+    private static Time time(int minuteOfDay, boolean twelveHour) {
+        final Time time = Time.fromMinuteOfDay(minuteOfDay);
+        time.setTwelveHour(twelveHour);
+        return time;
+    }
+
+    private static int[] digits(Time time) {
+        return new int[]{time.getFirstHour(), time.getSecHour(), time.getFirstMin(), time.getSecMin()};
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link TimeConversions} in default zone against Calendar
+ */
+public class TimeConversionsTest {
+
+    private TimeZone defaultZone;
+
+    @Before
+    public void setUp() {
+        defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+        TimeConverter.refreshDefaultZone();
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultZone);
+        TimeConverter.refreshDefaultZone();
+    }
+
+    @Test
+    public void timeToMillis() {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.set(2016, Calendar.JUNE, 10, 7, 0, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        final long reference = calendar.getTimeInMillis();
+
+        final Time time = Time.fromSecondOfDay(((14 * 60) + 25) * 60 + 42);
+
+        calendar.set(Calendar.HOUR_OF_DAY, 14);
+        calendar.set(Calendar.MINUTE, 25);
+        calendar.set(Calendar.SECOND, 42);
+        assertEquals(calendar.getTimeInMillis(), TimeConversions.timeToMillis(time, reference));
+    }
+
+    @Test
+    public void millisToTime() {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.set(2016, Calendar.DECEMBER, 31, 23, 59, 0);
+
+        final Time time = TimeConversions.millisToTime(calendar.getTimeInMillis());
+
+        assertEquals(23 * 60 + 59, time.getMinuteOfDay());
+    }
+
+    @Test
+    public void minuteOfDayRoundTrip() {
+        final long reference = System.currentTimeMillis();
+        for (int minute = 0; minute < 24 * 60; minute += 13) {
+            final long millis = TimeConversions.minuteOfDayToMillis(minute, reference);
+            /*DST gap moves minute forward*/
+            final int converted = TimeConversions.millisToTime(millis).getMinuteOfDay();
+            assertEquals(true, converted == minute || converted == minute + 60);
+        }
+    }
+
+    @Test
+    public void secondOfMinute() {
+        assertEquals(0, TimeConversions.secondOfMinute(0));
+        assertEquals(42, TimeConversions.secondOfMinute(60 * 1000 + 42 * 1000 + 999));
+        assertEquals(59, TimeConversions.secondOfMinute(-1));
+    }
+}
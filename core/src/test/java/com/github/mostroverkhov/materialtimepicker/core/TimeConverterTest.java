@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link TimeConverter} against Calendar, including DST gaps and overlaps
+ */
+public class TimeConverterTest {
+
+    private static final long MINUTE = 60 * 1000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    private static final String[] ZONES = {
+            "UTC",
+            "Europe/Berlin",
+            "America/New_York",
+            "America/Sao_Paulo",
+            "Asia/Kolkata",
+            "Australia/Lord_Howe",
+            "Pacific/Apia"};
+
+    @Test
+    public void minuteOfDayMatchesCalendar() {
+        final Random random = new Random(1);
+        final long now = System.currentTimeMillis();
+        for (String id : ZONES) {
+            final TimeZone zone = TimeZone.getTimeZone(id);
+            final TimeConverter converter = TimeConverter.forZone(zone);
+            final Calendar calendar = Calendar.getInstance(zone);
+            for (int i = 0; i < 5000; i++) {
+                final long millis = now + (long) ((random.nextDouble() - 0.5) * 8 * 366 * DAY);
+                calendar.setTimeInMillis(millis);
+                final int expected = calendar.get(Calendar.HOUR_OF_DAY) * 60
+                        + calendar.get(Calendar.MINUTE);
+
+                assertEquals(id + " " + millis, expected, converter.minuteOfDay(millis));
+            }
+        }
+    }
+
+    @Test
+    public void toMillisMatchesCalendar() {
+        final Random random = new Random(2);
+        final long now = System.currentTimeMillis();
+        for (String id : ZONES) {
+            final TimeZone zone = TimeZone.getTimeZone(id);
+            final TimeConverter converter = TimeConverter.forZone(zone);
+            final Calendar calendar = Calendar.getInstance(zone);
+            for (int i = 0; i < 5000; i++) {
+                final long reference = now + (long) ((random.nextDouble() - 0.5) * 8 * 366 * DAY);
+                final int minuteOfDay = random.nextInt(24 * 60);
+                calendar.setTimeInMillis(reference);
+                calendar.set(Calendar.HOUR_OF_DAY, minuteOfDay / 60);
+                calendar.set(Calendar.MINUTE, minuteOfDay % 60);
+                calendar.set(Calendar.SECOND, 0);
+                calendar.set(Calendar.MILLISECOND, 0);
+
+                /*Calendar resolves overlaps to standard time, which is the later instant*/
+                assertEquals(id + " " + reference + " " + minuteOfDay,
+                        calendar.getTimeInMillis(),
+                        converter.toMillis(reference, minuteOfDay, false));
+            }
+        }
+    }
+
+    @Test
+    public void gapIsShiftedForward() {
+        final TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+        final TimeConverter converter = TimeConverter.forZone(zone);
+        /*2016-03-27 02:00 CET -> 03:00 CEST*/
+        final long reference = utc(2016, Calendar.MARCH, 27, 12, 0);
+
+        final long millis = converter.toMillis(reference, 2 * 60 + 30);
+
+        assertEquals(utc(2016, Calendar.MARCH, 27, 1, 30), millis);
+        assertEquals(3 * 60 + 30, converter.minuteOfDay(millis));
+    }
+
+    @Test
+    public void overlapResolvesToEarlierOrLater() {
+        final TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+        final TimeConverter converter = TimeConverter.forZone(zone);
+        /*2016-10-30 03:00 CEST -> 02:00 CET*/
+        final long reference = utc(2016, Calendar.OCTOBER, 30, 12, 0);
+
+        final long earlier = converter.toMillis(reference, 2 * 60 + 30);
+        final long later = converter.toMillis(reference, 2 * 60 + 30, false);
+
+        assertEquals(utc(2016, Calendar.OCTOBER, 30, 0, 30), earlier);
+        assertEquals(earlier + HOUR, later);
+        assertEquals(2 * 60 + 30, converter.minuteOfDay(earlier));
+        assertEquals(2 * 60 + 30, converter.minuteOfDay(later));
+    }
+
+    @Test
+    public void farApartInstants() {
+        final TimeZone zone = TimeZone.getTimeZone("America/New_York");
+        final TimeConverter converter = TimeConverter.forZone(zone);
+        final long first = utc(1995, Calendar.JULY, 1, 16, 0);
+        final long second = utc(2030, Calendar.JANUARY, 1, 17, 0);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(12 * 60, converter.minuteOfDay(first));
+            assertEquals(12 * 60, converter.minuteOfDay(second));
+        }
+    }
+
+    @Test
+    public void defaultZoneIsReadAgainAfterRefresh() {
+        final TimeZone defaultZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Kolkata"));
+            TimeConverter.refreshDefaultZone();
+            assertEquals("Asia/Kolkata", TimeConverter.forDefaultZone().getZone().getID());
+
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+            TimeConverter.refreshDefaultZone();
+            assertEquals("America/New_York", TimeConverter.forDefaultZone().getZone().getID());
+        } finally {
+            TimeZone.setDefault(defaultZone);
+            TimeConverter.refreshDefaultZone();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void minuteOfDayOutOfRange() {
+        TimeConverter.forZone(TimeZone.getTimeZone("UTC")).toMillis(0, 24 * 60);
+    }
+
+    private static long utc(int year, int month, int day, int hour, int minute) {
+        final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Keystrokes of {@link TimeEntry}: transitions returned by applyDigit() and corrections of
+ * special cases on 24 and 12 hour clocks
+ */
+public class TimeEntryTest {
+
+    @Test
+    public void entersPositionsInOrder() {
+        final TimeEntry entry = new TimeEntry(Time.fromMinuteOfDay(15 * 60 + 45));
+
+        entry.applyDigit(0);
+        entry.applyDigit(9);
+        entry.applyDigit(3);
+        final int transition = entry.applyDigit(0);
+
+        assertEquals(9 * 60 + 30, entry.getTime().getMinuteOfDay());
+        assertEquals(0, Transition.getNextPosition(transition));
+        assertSame(State.FIRST_HOUR, entry.getState());
+    }
+
+    @Test
+    public void transitionOfChangedDigit() {
+        final TimeEntry entry = new TimeEntry(Time.fromMinuteOfDay(15 * 60 + 45));
+
+        final int transition = entry.applyDigit(0);
+
+        assertEquals(1, Transition.getChangedPositions(transition));
+        assertEquals(1, Transition.getNextPosition(transition));
+        assertEquals(entry.getEnabledDigits(), Transition.getEnabledDigits(transition));
+    }
+
+    @Test
+    public void transitionOfSameDigit() {
+        final TimeEntry entry = new TimeEntry(Time.fromMinuteOfDay(15 * 60 + 45));
+
+        final int transition = entry.applyDigit(1);
+
+        assertEquals(0, Transition.getChangedPositions(transition));
+        assertEquals(1, Transition.getNextPosition(transition));
+    }
+
+    @Test
+    public void hoursAbove23AreCorrectedTo23() {
+        final TimeEntry entry = new TimeEntry(Time.fromMinuteOfDay(15 * 60 + 45));
+
+        final int transition = entry.applyDigit(2);
+
+        assertEquals(23 * 60 + 45, entry.getTime().getMinuteOfDay());
+        assertTrue(Transition.isChanged(transition, 0));
+        assertTrue(Transition.isChanged(transition, 1));
+        assertFalse(Transition.isChanged(transition, 2));
+        assertEquals(State.digitsMask(0, 1, 2, 3), Transition.getEnabledDigits(transition));
+    }
+
+    @Test
+    public void addressSpecialCases24Hour() {
+        final Time time = new Time(2, 7, 0, 0);
+        final TimeEntry entry = new TimeEntry(time);
+
+        assertTrue(entry.addressSpecialCases());
+        assertEquals(23, time.getHours());
+        assertFalse(entry.addressSpecialCases());
+    }
+
+    @Test
+    public void hour00IsCorrectedTo01() {
+        final TimeEntry entry = twelveHourEntry(10 * 60 + 30);
+
+        final int transition = entry.applyDigit(0);
+
+        assertEquals(1, entry.getTime().getClockHours());
+        assertFalse(entry.getTime().isPm());
+        assertTrue(Transition.isChanged(transition, 0));
+        assertTrue(Transition.isChanged(transition, 1));
+        assertEquals(1, Transition.getNextPosition(transition));
+    }
+
+    @Test
+    public void hoursAbove12AreCorrectedTo12() {
+        final TimeEntry entry = twelveHourEntry(9 * 60 + 30);
+
+        entry.applyDigit(1);
+
+        assertEquals(12, entry.getTime().getClockHours());
+        assertEquals(30, entry.getTime().getMinutes());
+    }
+
+    @Test
+    public void addressSpecialCases12Hour() {
+        final TimeEntry entry = twelveHourEntry(0);
+        final Time time = entry.getTime();
+
+        time.setFirstHour(0);
+        time.setSecHour(0);
+        assertTrue(entry.addressSpecialCases());
+        assertEquals(1, time.getClockHours());
+
+        time.setFirstHour(1);
+        time.setSecHour(5);
+        assertTrue(entry.addressSpecialCases());
+        assertEquals(12, time.getClockHours());
+    }
+
+    @Test
+    public void singleDigitHourOf12HourClock() {
+        final TimeEntry entry = twelveHourEntry(10 * 60 + 30);
+
+        final int transition = entry.applyDigit(5);
+
+        assertEquals(5, entry.getTime().getClockHours());
+        assertSame(State.SEC_HOUR, entry.getEntered());
+        assertEquals(3, Transition.getChangedPositions(transition));
+        assertEquals(2, Transition.getNextPosition(transition));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void disallowedDigitIsRejected() {
+        new TimeEntry(new Time()).applyDigit(3);
+    }
+
+    @Test
+    public void constraintsMoveTimeToAllowed() {
+        final TimeEntry entry = new TimeEntry(Time.fromMinuteOfDay(12 * 60));
+        entry.setConstraints(TimeConstraints.of(8 * 60, 18 * 60, 15));
+
+        entry.applyDigit(0);
+        entry.applyDigit(9);
+        final int transition = entry.applyDigit(1);
+
+        assertEquals(9 * 60 + 15, entry.getTime().getMinuteOfDay());
+        assertTrue(Transition.isChanged(transition, 3));
+        assertEquals(State.digitsMask(5), Transition.getEnabledDigits(transition));
+    }
+
+    private static TimeEntry twelveHourEntry(int minuteOfDay) {
+        final Time time = Time.fromMinuteOfDay(minuteOfDay);
+        time.setTwelveHour(true);
+        return new TimeEntry(time);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Digits of {@link Time} and their change tracking
+ */
+public class TimeTest {
+
+    @Test
+    public void secondOfDayRoundTrip() {
+        for (int second = 0; second < 24 * 60 * 60; second += 7) {
+            assertEquals(second, Time.fromSecondOfDay(second).getSecondOfDay());
+        }
+    }
+
+    @Test
+    public void twelveHourKeepsTimeOfDay() {
+        final Time time = Time.fromMinuteOfDay(0);
+        time.setTwelveHour(true);
+        assertEquals(12, time.getClockHours());
+
+        time.setMinuteOfDay(13 * 60 + 5);
+        assertEquals(1, time.getClockHours());
+        assertEquals(true, time.isPm());
+
+        time.setTwelveHour(false);
+        assertEquals(13, time.getHours());
+    }
+
+    @Test
+    public void noChangedSlots() {
+        final Time time = Time.fromSecondOfDay(12345);
+        assertEquals(0, time.changedSlots(time.packDigits()));
+    }
+
+    @Test
+    public void changedSlotsOfEveryDigit() {
+        final Time time = new Time();
+        for (int slot = 0; slot < TimeFormat.MAX_POSITIONS; slot++) {
+            for (int from = 0; from <= 9; from++) {
+                for (int to = 0; to <= 9; to++) {
+                    time.setDigit(slot, from);
+                    final int packed = time.packDigits();
+                    time.setDigit(slot, to);
+
+                    assertEquals(from == to ? 0 : 1 << slot, time.changedSlots(packed));
+                }
+            }
+            time.setDigit(slot, 0);
+        }
+    }
+
+    @Test
+    public void changedSlotsOfSeveralDigits() {
+        final Time time = Time.fromSecondOfDay(((19 * 60) + 59) * 60 + 59);
+        final int packed = time.packDigits();
+
+        time.setSecondOfDay(((20 * 60) + 59) * 60);
+
+        /*19:59:59 -> 20:59:00*/
+        assertEquals(1 | 1 << 1 | 1 << 4 | 1 << 5, time.changedSlots(packed));
+    }
+}
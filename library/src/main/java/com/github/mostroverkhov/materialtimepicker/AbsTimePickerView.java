@@ -0,0 +1,214 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.widget.LinearLayout;
+
+import com.github.mostroverkhov.materialtimepicker.core.State;
+import com.github.mostroverkhov.materialtimepicker.core.Time;
+import com.github.mostroverkhov.materialtimepicker.core.TimeConstraints;
+import com.github.mostroverkhov.materialtimepicker.core.TimeEntry;
+import com.github.mostroverkhov.materialtimepicker.core.TimeFormat;
+
+/**
+ * Time picker digits and keypad as regular view, base of {@link TimePickerView} and
+ * {@link TimePickerCell}. Styled by materialDialogStyle attribute of view or theme, same as
+ * dialog. Single instance may be re-bound to new time with {@link #setMinuteOfDay(int)}, which
+ * does not inflate or allocate. Format and clock are set by subclasses which support them
+ */
+public abstract class AbsTimePickerView extends LinearLayout {
+
+    private final TimePickerController controller;
+    private OnTimeChangedListener listener;
+
+    public interface OnTimeChangedListener {
+
+        void onTimeChanged(AbsTimePickerView view, int minuteOfDay);
+    }
+
+    AbsTimePickerView(Context context, AttributeSet attrs) {
+        super(themedContext(context, attrs), attrs);
+
+        setOrientation(VERTICAL);
+        setBackgroundColor(resolveBackgroundColor(getContext()));
+        LayoutInflater.from(getContext()).inflate(R.layout.time_picker_view, this, true);
+
+        controller = new TimePickerController(
+                (DigitDisplayView) findViewById(R.id.material_dialog_digits),
+                (KeypadView) findViewById(R.id.material_dialog_keyboard),
+                new TimeEntry(new Time(), State.FIRST_HOUR));
+
+        controller.setCallback(new TimePickerController.Callback() {
+            @Override
+            public void onTimeChanged(TimeEntry entry) {
+                if (listener != null) {
+                    listener.onTimeChanged(AbsTimePickerView.this, entry.getTime().getMinuteOfDay());
+                }
+            }
+
+            @Override
+            public void onEntrySwitched(TimeEntry entry) {
+            }
+        });
+    }
+
+    public void setOnTimeChangedListener(OnTimeChangedListener listener) {
+        this.listener = listener;
+    }
+
+    public int getMinuteOfDay() {
+        return controller.getEntry().getTime().getMinuteOfDay();
+    }
+
+    public int getHours() {
+        return controller.getEntry().getTime().getHours();
+    }
+
+    public int getMinutes() {
+        return controller.getEntry().getTime().getMinutes();
+    }
+
+    public int getSeconds() {
+        return controller.getEntry().getTime().getSeconds();
+    }
+
+    public int getSecondOfDay() {
+        return controller.getEntry().getTime().getSecondOfDay();
+    }
+
+    /**
+     * Shows time and moves selection to first digit, w/o animation. Listener is not notified
+     *
+     * @param minuteOfDay in [0, 1440)
+     */
+    public void setMinuteOfDay(int minuteOfDay) {
+        controller.bind(minuteOfDay, controller.getEntry().getFormat().first());
+    }
+
+    /**
+     * Same as {@link #setMinuteOfDay(int)}, for formats with seconds
+     *
+     * @param secondOfDay in [0, 86400)
+     */
+    public void setSecondOfDay(int secondOfDay) {
+        controller.bindSecondOfDay(secondOfDay, controller.getEntry().getFormat().first());
+    }
+
+    /*only allowed times can be entered, current time is moved to nearest allowed one*/
+    public void setConstraints(TimeConstraints constraints) {
+        final TimeEntry entry = controller.getEntry();
+        entry.setConstraints(constraints);
+        setSecondOfDay(entry.getTime().getSecondOfDay());
+    }
+
+    public TimeFormat getFormat() {
+        return controller.getEntry().getFormat();
+    }
+
+    public boolean isTwelveHour() {
+        return controller.getEntry().getTime().isTwelveHour();
+    }
+
+    public void setTime(int hours, int minutes) {
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            throw new IllegalArgumentException("Time is out of range: " + hours + ":" + minutes);
+        }
+        setMinuteOfDay(hours * 60 + minutes);
+    }
+
+    TimePickerController getController() {
+        return controller;
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        final SavedState savedState = new SavedState(super.onSaveInstanceState());
+        final TimeEntry entry = controller.getEntry();
+        savedState.secondOfDay = entry.getTime().getSecondOfDay();
+        savedState.state = entry.getState().getSaveState();
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        final SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        controller.bindSecondOfDay(savedState.secondOfDay, State.getFromSaveState(savedState.state));
+    }
+
+    private static Context themedContext(Context context, AttributeSet attrs) {
+        final int themeStyle = MaterialTimePicker.getStyleReference(context, R.style.DefMaterialDialogStyle);
+
+        final TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.TimePickerView);
+        final int viewStyle = a.getResourceId(R.styleable.TimePickerView_materialDialogStyle, themeStyle);
+        a.recycle();
+
+        return ThemeCache.getInstance().themedContext(context, viewStyle);
+    }
+
+    private static int resolveBackgroundColor(Context context) {
+        final TypedArray a = context.getTheme().obtainStyledAttributes(new int[]{R.attr.dialogBackgroundColor});
+        final int color = a.getColor(0, 0);
+        a.recycle();
+        return color;
+    }
+
+    static class SavedState extends BaseSavedState {
+
+        int secondOfDay;
+        int state;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            secondOfDay = in.readInt();
+            state = in.readInt();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(secondOfDay);
+            out.writeInt(state);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+}
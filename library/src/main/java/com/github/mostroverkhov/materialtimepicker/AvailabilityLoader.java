@@ -0,0 +1,250 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import com.github.mostroverkhov.materialtimepicker.core.AvailabilityIndex;
+import com.github.mostroverkhov.materialtimepicker.core.TimeConstraints;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs {@link AvailabilityProvider} on background thread. Each batch of intervals is added to
+ * ones loaded so far, and compiled with static constraints into new {@link TimeConstraints} on
+ * the same thread. Main thread receives only latest constraints: updates which arrive before
+ * previous one is delivered replace it. Provider which throws fails loading: constraints
+ * loaded so far stay, but none is complete. Listener is called on main thread, not after cancel
+ */
+class AvailabilityLoader {
+
+    private static final String TAG = "AvailabilityLoader";
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final Executor executor = Executors.newSingleThreadExecutor(new LoaderThreadFactory());
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AvailabilityProvider provider;
+    private final int minMinute;
+    private final int maxMinute;
+    private final int minuteStep;
+
+    /*accessed on loader thread only*/
+    private int[] starts;
+    private int[] ends;
+    private int count;
+
+    /*latest not delivered update, guarded by this*/
+    private TimeConstraints pendingConstraints;
+    private boolean pendingComplete;
+    private boolean pendingFailed;
+    private boolean deliveryPosted;
+
+    private volatile boolean cancelled;
+    private Listener listener;
+
+    interface Listener {
+
+        /*complete is true for last update*/
+        void onConstraints(TimeConstraints constraints, boolean complete);
+
+        /*provider has thrown, no complete update follows*/
+        void onFailed();
+    }
+
+    /*static constraints, and blocked intervals known upfront - may be null*/
+    AvailabilityLoader(AvailabilityProvider provider,
+                       int minMinute,
+                       int maxMinute,
+                       int minuteStep,
+                       int[] blockedStarts,
+                       int[] blockedEnds) {
+        this.provider = provider;
+        this.minMinute = minMinute;
+        this.maxMinute = maxMinute;
+        this.minuteStep = minuteStep;
+        if (blockedStarts != null) {
+            starts = Arrays.copyOf(blockedStarts, Math.max(16, blockedStarts.length));
+            ends = Arrays.copyOf(blockedEnds, Math.max(16, blockedEnds.length));
+            count = blockedStarts.length;
+        } else {
+            starts = new int[16];
+            ends = new int[16];
+        }
+    }
+
+    /*main thread*/
+    void start(Listener listener) {
+        this.listener = listener;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    /*main thread*/
+    void cancel() {
+        cancelled = true;
+        listener = null;
+    }
+
+    private void load() {
+        if (cancelled) {
+            return;
+        }
+        try {
+            provider.loadBlockedIntervals(new Sink());
+        } catch (RuntimeException e) {
+            /*times missing from failed load may be booked, so it is never published as complete*/
+            Log.w(TAG, "Blocked intervals loading failed", e);
+            publishFailure();
+            return;
+        }
+        publish(compile(), true);
+    }
+
+    private TimeConstraints compile() {
+        final AvailabilityIndex index = AvailabilityIndex.ofBlocked(
+                Arrays.copyOf(starts, count),
+                Arrays.copyOf(ends, count));
+        try {
+            return TimeConstraints.of(minMinute, maxMinute, minuteStep, index);
+        } catch (IllegalArgumentException e) {
+            /*all time is blocked*/
+            return TimeConstraints.EMPTY;
+        }
+    }
+
+    private void add(int[] batchStarts, int[] batchEnds) {
+        if (batchStarts.length != batchEnds.length) {
+            throw new IllegalArgumentException("Interval starts and ends should have same length: "
+                    + batchStarts.length + ", " + batchEnds.length);
+        }
+        for (int i = 0; i < batchStarts.length; i++) {
+            if (batchStarts[i] < 0 || batchStarts[i] >= MINUTES_PER_DAY
+                    || batchEnds[i] < 0 || batchEnds[i] > MINUTES_PER_DAY) {
+                throw new IllegalArgumentException("Invalid interval: " + batchStarts[i] + ", " + batchEnds[i]);
+            }
+        }
+        final int newCount = count + batchStarts.length;
+        if (newCount > starts.length) {
+            final int capacity = Math.max(newCount, starts.length * 2);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        System.arraycopy(batchStarts, 0, starts, count, batchStarts.length);
+        System.arraycopy(batchEnds, 0, ends, count, batchEnds.length);
+        count = newCount;
+    }
+
+    private void publish(TimeConstraints constraints, boolean complete) {
+        synchronized (this) {
+            pendingConstraints = constraints;
+            pendingComplete = complete;
+            if (deliveryPosted) {
+                return;
+            }
+            deliveryPosted = true;
+        }
+        postDelivery();
+    }
+
+    /*after not delivered update, if any*/
+    private void publishFailure() {
+        synchronized (this) {
+            pendingFailed = true;
+            if (deliveryPosted) {
+                return;
+            }
+            deliveryPosted = true;
+        }
+        postDelivery();
+    }
+
+    private void postDelivery() {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                deliver();
+            }
+        });
+    }
+
+    private void deliver() {
+        final TimeConstraints constraints;
+        final boolean complete;
+        final boolean failed;
+        synchronized (this) {
+            constraints = pendingConstraints;
+            complete = pendingComplete;
+            failed = pendingFailed;
+            pendingConstraints = null;
+            pendingFailed = false;
+            deliveryPosted = false;
+        }
+        final Listener listener = this.listener;
+        if (listener == null || cancelled) {
+            return;
+        }
+        if (constraints != null) {
+            listener.onConstraints(constraints, complete);
+        }
+        if (failed) {
+            listener.onFailed();
+        }
+    }
+
+    private class Sink implements AvailabilityProvider.Sink {
+
+        @Override
+        public void onBlockedIntervals(int[] starts, int[] ends) {
+            if (cancelled) {
+                return;
+            }
+            add(starts, ends);
+            publish(compile(), false);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static class LoaderThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "material-time-picker-availability");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+/**
+ * Blocked intervals which are slow to load, e.g. from database. Implemented by dialog target:
+ * activity or target fragment, see {@link MaterialTimePickerBuilder#withAvailabilityProvider()}.
+ * Dialog opens and accepts input at once, while intervals are loaded: see
+ * {@link MaterialTimePicker#isAvailabilityPending()}
+ */
+public interface AvailabilityProvider {
+
+    /**
+     * Called on background thread. Delivers blocked intervals to sink as they are loaded, loading
+     * is complete when this method returns. If it throws, loading is not complete: time can not
+     * be confirmed, dialog can only be cancelled
+     */
+    void loadBlockedIntervals(Sink sink);
+
+    interface Sink {
+
+        /**
+         * May be called several times, intervals add up. Keypad is updated with each call
+         *
+         * @param starts interval starts, minute of day, inclusive
+         * @param ends   interval ends, minute of day, exclusive. End before start wraps midnight
+         */
+        void onBlockedIntervals(int[] starts, int[] ends);
+
+        /*true once dialog is gone, loading may stop*/
+        boolean isCancelled();
+    }
+}
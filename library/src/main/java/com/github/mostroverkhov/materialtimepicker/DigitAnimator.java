@@ -18,324 +18,240 @@ package com.github.mostroverkhov.materialtimepicker;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.support.annotation.NonNull;
-import android.view.View;
-import android.view.ViewPropertyAnimator;
-import android.view.animation.AccelerateDecelerateInterpolator;
-import android.widget.TextView;
-
-import java.util.ArrayList;
-import java.util.List;
+import android.animation.ValueAnimator;
+import android.view.animation.LinearInterpolator;
 
 /**
  * Created by maksym ostroverkhov on 12.02.2016.
  */
 public class DigitAnimator {
 
-    private TextView curView;
-    private View animatedView;
-    private final TextView digitAnimationUtil;
-    private final TextView digitAnimationUtilSpecialCase;
+    public static final int NO_VALUE = -1;
+
+    /*transitions requested while animating, beyond this the oldest ones are applied w/o animation*/
+    private static final int QUEUE_CAPACITY = 8;
+
+    private final DigitDisplayView display;
     private final int duration;
     private final Callback callback;
     private boolean isAnimating;
 
-    public DigitAnimator(TextView curView,
-                         View animatedView,
-                         TextView digitAnimationUtil,
-                         TextView digitAnimationUtilSpecialCase,
+    /*Animators and their listeners are created once and reused by every transition, so
+    * keystrokes queued while transition runs do not allocate. Starting idle animator allocates in
+    * framework only (ValueAnimator copies its listeners). Transition parameters are kept in fields*/
+    private final ValueAnimator selectionAnimator;
+    private int selectionFrom;
+    private int selectionTarget;
+    private int selectionNewValue;
+
+    /*positions rolled by value animation as bitmask, their new values are indexed by position*/
+    private final ValueAnimator valueAnimator;
+    private int valuePositions;
+    private final int[] valueNewValues = new int[DigitDisplayView.MAX_POSITIONS];
+
+    /*ring buffer of pending transitions: target position and new value of position it leaves*/
+    private final int[] queuedTargets = new int[QUEUE_CAPACITY];
+    private final int[] queuedValues = new int[QUEUE_CAPACITY];
+    private int queueHead;
+    private int queueSize;
+
+    public DigitAnimator(DigitDisplayView display,
+                         int position,
                          Callback callback) {
 
-        this.curView = curView;
-        this.animatedView = animatedView;
-        this.digitAnimationUtil = digitAnimationUtil;
-        this.digitAnimationUtilSpecialCase = digitAnimationUtilSpecialCase;
+        this.display = display;
         this.duration = 200;
         this.callback = callback;
 
-        init();
+        final SelectionAnimation selectionAnimation = new SelectionAnimation();
+        selectionAnimator = newAnimator();
+        selectionAnimator.addUpdateListener(selectionAnimation);
+        selectionAnimator.addListener(selectionAnimation);
+
+        final ValueAnimation valueAnimation = new ValueAnimation();
+        valueAnimator = newAnimator();
+        valueAnimator.addUpdateListener(valueAnimation);
+        valueAnimator.addListener(valueAnimation);
+
+        display.setSelectedPosition(position);
     }
 
-    public TextView getCurrentView() {
-        return curView;
+    public int getCurrentPosition() {
+        return display.getSelectedPosition();
     }
 
+    /*true while transition is running or pending*/
     public boolean isAnimating() {
         return isAnimating;
     }
 
-    /*selection animation from current to target view, w/o animate changing value of current view*/
-    public void animateTo(final TextView target) {
-        animateTo(target, null);
+    public int getPendingCount() {
+        return queueSize;
     }
 
-    /*selection animation from current to target view, animate changing value of current view to newValue*/
-    public void animateTo(final TextView target, String newValue) {
+    /*selection animation from current to target position, w/o animate changing value of current position*/
+    public void animateTo(int target) {
+        animateTo(target, NO_VALUE);
+    }
 
-        if (!isAnimating) {
+    /*selection animation from current to target position, animate changing value of current
+    position to newValue (if not negative). Transitions requested while animating are queued and
+    run in order once current one ends; if several are pending then, all but the last one are
+    applied at once*/
+    public void animateTo(int target, int newValue) {
 
+        if (isAnimating) {
+            enqueue(target, newValue);
+        } else {
             onAnimationStarted();
-
-            if (target == curView) {
+            if (!startTransition(target, newValue)) {
                 onAnimationFinished();
-            } else {
-
-                if (newValue != null) {
-                    startSelectionAndValueSwitchAnimators(target, newValue);
-                } else {
-                    startSelectionAnimator(target);
-                }
             }
         }
     }
 
-    public void animateValue(final TextView view, final String newValue) {
-        animateValue(view, newValue, 0);
+    /*ends running and drops pending transitions, then selects position w/o animation*/
+    public void jumpTo(int position) {
+        queueSize = 0;
+        if (selectionAnimator.isStarted()) {
+            selectionAnimator.end();
+        }
+        endValueAnimation();
+        display.setSelectedPosition(position);
     }
 
-    /*animate value of view to newValue*/
-    public void animateValue(final TextView view, final String newValue, int delay) {
-
-        new AnimatorSet(delay).add(new AnimatorCreator() {
-            @Override
-            public ViewPropertyAnimator createAnimator() {
-                return newDigitAnimator(view);
-            }
-
-            @Override
-            public Animator.AnimatorListener createListener() {
-                return newDigitAnimatorListener(view);
-            }
-        }).add(new AnimatorCreator() {
-            @Override
-            public ViewPropertyAnimator createAnimator() {
-                return newUtilAnimator(view, digitAnimationUtilSpecialCase);
-            }
-
-            @Override
-            public Animator.AnimatorListener createListener() {
-                return newUtilAnimatorListener(view, digitAnimationUtilSpecialCase, newValue);
-            }
-        }).start();
-
+    public void animateValue(int position, int newValue) {
+        animateValue(position, newValue, 0);
     }
 
-    private void startSelectionAnimator(final TextView target) {
+    /*animate value at position to newValue*/
+    public void animateValue(int position, int newValue, int delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay should not be negative");
+        }
+        endValueAnimation();
 
-        new AnimatorSet().add(new AnimatorCreator() {
-            @Override
-            public ViewPropertyAnimator createAnimator() {
-                return newSelectionAnimator(target);
-            }
+        valuePositions = 1 << position;
+        valueNewValues[position] = newValue;
+        valueAnimator.setStartDelay(delay);
+        valueAnimator.start();
+    }
 
-            @Override
-            public Animator.AnimatorListener createListener() {
-                return newSelectionAnimatorListener(target);
+    /*animate values at positions of bitmask to values[position], all at once: keystroke
+    corrections start in same frame as keystroke itself*/
+    public void animateValues(int positions, int[] values) {
+        endValueAnimation();
+        if (positions == 0) {
+            return;
+        }
+        for (int pos = 0; pos < DigitDisplayView.MAX_POSITIONS; pos++) {
+            if ((positions & 1 << pos) != 0) {
+                valueNewValues[pos] = values[pos];
             }
-        }).start();
+        }
+        valuePositions = positions;
+        valueAnimator.setStartDelay(0);
+        valueAnimator.start();
     }
 
+    /*returns false if there is nothing to animate: transition was applied at once*/
+    private boolean startTransition(int target, int newValue) {
+        final int from = display.getSelectedPosition();
 
-    private void startSelectionAndValueSwitchAnimators(final TextView target,
-                                                       final String newValue) {
-
-        new AnimatorSet().add(new AnimatorCreator() {
-            @Override
-            public ViewPropertyAnimator createAnimator() {
-                return newDigitAnimator(curView);
-            }
+        if (target == from) {
+            applyTransition(target, newValue);
+            return false;
+        }
+        if (newValue != NO_VALUE && isValueAnimated(from)) {
+            endValueAnimation();
+        }
+        selectionFrom = from;
+        selectionTarget = target;
+        selectionNewValue = newValue;
+        selectionAnimator.start();
 
-            @Override
-            public Animator.AnimatorListener createListener() {
-                return newDigitAnimatorListener(curView);
-            }
-        }).add(new AnimatorCreator() {
-            @Override
-            public ViewPropertyAnimator createAnimator() {
-                return newUtilAnimator(curView, digitAnimationUtil);
-            }
+        return true;
+    }
 
-            @Override
-            public Animator.AnimatorListener createListener() {
-                return newUtilAnimatorListener(curView, digitAnimationUtil, newValue);
-            }
-        }).add(new AnimatorCreator() {
-            @Override
-            public ViewPropertyAnimator createAnimator() {
-                return newSelectionAnimator(target);
-            }
+    private void applyTransition(int target, int newValue) {
+        final int from = display.getSelectedPosition();
 
-            @Override
-            public Animator.AnimatorListener createListener() {
-                return newSelectionAnimatorListener(target);
+        if (newValue != NO_VALUE) {
+            if (isValueAnimated(from)) {
+                endValueAnimation();
             }
-        }).start();
+            display.setDigit(from, newValue);
+        }
+        display.setSelectedPosition(target);
     }
 
-    @NonNull
-    private Animator.AnimatorListener newSelectionAnimatorListener(TextView target) {
-        final SelectionListener selListener = new SelectionListener(
-                DigitAnimator.this,
-                target);
-
-        return selListener;
+    private void onTransitionEnd() {
+        /*coalesce backlog: only last pending transition is animated*/
+        while (queueSize > 1) {
+            applyTransition(queuedTargets[queueHead], queuedValues[queueHead]);
+            dequeue();
+        }
+        boolean started = false;
+        while (!started && queueSize > 0) {
+            final int target = queuedTargets[queueHead];
+            final int newValue = queuedValues[queueHead];
+            dequeue();
+            started = startTransition(target, newValue);
+        }
+        if (!started) {
+            onAnimationFinished();
+        }
     }
 
-    private ViewPropertyAnimator newSelectionAnimator(TextView target) {
-        final ViewPropertyAnimator selAnimator = animatedView.animate()
-                .translationXBy(target.getX() - curView.getX())
-                .setDuration(duration)
-                .setInterpolator(new AccelerateDecelerateInterpolator());
-
-        return selAnimator;
+    private void enqueue(int target, int newValue) {
+        if (queueSize == QUEUE_CAPACITY) {
+            /*fast forward oldest*/
+            applyTransition(queuedTargets[queueHead], queuedValues[queueHead]);
+            dequeue();
+        }
+        final int tail = (queueHead + queueSize) % QUEUE_CAPACITY;
+        queuedTargets[tail] = target;
+        queuedValues[tail] = newValue;
+        queueSize++;
     }
 
-    @NonNull
-    private Animator.AnimatorListener newUtilAnimatorListener(TextView targetView,
-                                                              TextView utilView,
-                                                              String newValue) {
-        final UtilViewListener utilListener = new UtilViewListener(
-                utilView,
-                targetView,
-                newValue);
-
-        return utilListener;
+    private void dequeue() {
+        queueHead = (queueHead + 1) % QUEUE_CAPACITY;
+        queueSize--;
     }
 
-    private ViewPropertyAnimator newUtilAnimator(TextView targetView, TextView utilView) {
-        final ViewPropertyAnimator utilAnimation = utilView
-                .animate()
-                .yBy(-targetView.getHeight())
-                .setDuration(duration);
-
-        return utilAnimation;
+    private boolean isValueAnimated(int position) {
+        return (valuePositions & 1 << position) != 0;
     }
 
-    @NonNull
-    private Animator.AnimatorListener newDigitAnimatorListener(TextView textView) {
-        Animator.AnimatorListener digitListener = new DigitListener(textView);
-        return digitListener;
+    private void endValueAnimation() {
+        /*end() of not started animator would start it*/
+        if (valueAnimator.isStarted()) {
+            valueAnimator.end();
+        }
     }
 
-    private ViewPropertyAnimator newDigitAnimator(TextView textView) {
-        final ViewPropertyAnimator digitAnimation = textView
-                .animate()
-                .translationYBy(-curView.getHeight() / 2)
-                .alpha(0)
-                .setDuration(duration / 2);
+    private ValueAnimator newAnimator() {
+        /*progress is linear, display applies easing per element*/
+        final ValueAnimator animator = ValueAnimator.ofFloat(0, 1);
+        animator.setDuration(duration);
+        animator.setInterpolator(new LinearInterpolator());
 
-        return digitAnimation;
+        return animator;
     }
 
     private void onAnimationStarted() {
         callback.onAnimationStarted();
-        curView.setSelected(false);
         isAnimating = true;
     }
 
     private void onAnimationFinished() {
-        callback.onAnimationFinished();
         isAnimating = false;
-    }
-
-    /*Start animations simultaneously. Runs listeners onAnimationStart in order, before animations
-    are created (that's the reason why AnimatorCreator is needed).
-    Runs listeners onAnimationEnd after all animations are finished*/
-    private static class AnimatorSet {
-
-        private final int delay;
-
-        private final List<AnimatorCreator> creators = new ArrayList<>();
-
-        public AnimatorSet add(AnimatorCreator creator) {
-
-            creators.add(creator);
-            return this;
-        }
-
-        public AnimatorSet(int delay) {
-            if (delay < 0) {
-                throw new IllegalArgumentException("Delay should not be negative");
-            }
-            this.delay = delay;
-        }
-
-        public AnimatorSet() {
-            this(0);
-        }
-
-        public void start() {
-
-            final ArrayList<Animator.AnimatorListener> listeners = new ArrayList<>(creators.size());
-
-            for (AnimatorCreator creator : creators) {
-                listeners.add(creator.createListener());
-            }
-
-            /*calls on animationEnd once all animations are finished*/
-            final CountingAnimListener countingListener = new CountingAnimListener(
-                    creators.size(),
-                    listeners);
-
-            for (int i = 0; i < creators.size(); i++) {
-
-                /*listeners are used to configure views taking part in animation,
-                * so those have to e configured before animation creation*/
-                listeners.get(i).onAnimationStart(null);
-
-                /*start animations*/
-                final AnimatorCreator creator = creators.get(i);
-                final ViewPropertyAnimator animator = creator.createAnimator();
-                animator.setListener(countingListener);
-                if (delay > 0) {
-                    animator.setStartDelay(delay);
-                }
-                animator.start();
-            }
-        }
-    }
-
-    private static class CountingAnimListener extends AnimatorListenerAdapter {
-
-        private final List<Animator.AnimatorListener> listeners;
-        private final int count;
-        private int curCount = 0;
-
-        public CountingAnimListener(int count,
-                                    List<Animator.AnimatorListener> listeners) {
-
-            this.listeners = listeners;
-            this.count = count;
-        }
-
-        @Override
-        public void onAnimationEnd(Animator animation) {
-
-            curCount++;
-            if (curCount == count) {
-                curCount = 0;
-                for (Animator.AnimatorListener listener : listeners) {
-                    listener.onAnimationEnd(null);
-                }
-            }
-        }
-    }
-
-
-    private interface AnimatorCreator {
-        /*create animator*/
-        ViewPropertyAnimator createAnimator();
-
-        /*create listener for animator: it's onAnimStart() is used for
-        configuration of animated views, will be called before animator
-        is created; onAnimEnd() will be called after all animations in AnimatorSet
-        are finished; they animator instance provided in callbacks is always null*/
-
-        Animator.AnimatorListener createListener();
+        callback.onAnimationFinished();
     }
 
     /*Callbacks for DigitAnimator clients: start/end
-    * events of animations set*/
+    * events of animations set. Finished is called once there are no pending transitions*/
     public interface Callback {
 
         void onAnimationStarted();
@@ -343,83 +259,54 @@ public class DigitAnimator {
         void onAnimationFinished();
     }
 
-    private void init() {
-
-        animatedView.post(new Runnable() {
-            @Override
-            public void run() {
-                animatedView.setX(curView.getX());
-            }
-        });
-
-        curView.setSelected(true);
-    }
-
-    private static class DigitListener extends AnimatorListenerAdapter {
-
-        private final View curView;
-        private float prevY;
-        private float prevAlpha;
-
-        public DigitListener(View curView) {
-            this.curView = curView;
-
-        }
+    /*selection moves from -> target, value of from position optionally rolls to new value*/
+    private class SelectionAnimation extends AnimatorListenerAdapter
+            implements ValueAnimator.AnimatorUpdateListener {
 
         @Override
-        public void onAnimationEnd(Animator nil) {
-            curView.setY(prevY);
-            curView.setAlpha(prevAlpha);
+        public void onAnimationUpdate(ValueAnimator animation) {
+            final float progress = animation.getAnimatedFraction();
+            display.setSelectionTransition(selectionFrom, selectionTarget, progress);
+            if (selectionNewValue != NO_VALUE) {
+                display.setRollTransition(selectionFrom, selectionNewValue, progress);
+            }
         }
 
         @Override
-        public void onAnimationStart(Animator nil) {
-            prevAlpha = curView.getAlpha();
-            prevY = curView.getY();
+        public void onAnimationEnd(Animator animation) {
+            if (selectionNewValue != NO_VALUE) {
+                display.setDigit(selectionFrom, selectionNewValue);
+                display.clearRollTransition(selectionFrom);
+            }
+            display.clearSelectionTransition();
+            display.setSelectedPosition(selectionTarget);
+            onTransitionEnd();
         }
     }
 
-    private static class UtilViewListener extends AnimatorListenerAdapter {
-
-        private final TextView digitAnimationUtil;
-        private final TextView targetView;
-        private final String newValue;
-
-        public UtilViewListener(TextView digitAnimationUtil, TextView targetView, String newValue) {
-            this.digitAnimationUtil = digitAnimationUtil;
-            this.targetView = targetView;
-            this.newValue = newValue;
-        }
-
-        @Override
-        public void onAnimationEnd(Animator nil) {
-            digitAnimationUtil.setVisibility(View.INVISIBLE);
-        }
+    private class ValueAnimation extends AnimatorListenerAdapter
+            implements ValueAnimator.AnimatorUpdateListener {
 
         @Override
-        public void onAnimationStart(Animator nil) {
-            digitAnimationUtil.setVisibility(View.VISIBLE);
-            digitAnimationUtil.setText(newValue);
-            digitAnimationUtil.setX(targetView.getX());
-            digitAnimationUtil.setY(targetView.getY() + targetView.getHeight());
-        }
-    }
-
-    private static class SelectionListener extends AnimatorListenerAdapter {
-
-        private final DigitAnimator animator;
-        private final TextView target;
-
-        public SelectionListener(DigitAnimator animator, TextView target) {
-            this.animator = animator;
-            this.target = target;
+        public void onAnimationUpdate(ValueAnimator animation) {
+            final float progress = animation.getAnimatedFraction();
+            for (int pos = 0; pos < DigitDisplayView.MAX_POSITIONS; pos++) {
+                if (isValueAnimated(pos)) {
+                    display.setRollTransition(pos, valueNewValues[pos], progress);
+                }
+            }
         }
 
         @Override
-        public void onAnimationEnd(Animator nil) {
-            target.setSelected(true);
-            animator.curView = target;
-            animator.onAnimationFinished();
+        public void onAnimationEnd(Animator animation) {
+            final int positions = valuePositions;
+            valuePositions = 0;
+            for (int pos = 0; pos < DigitDisplayView.MAX_POSITIONS; pos++) {
+                if ((positions & 1 << pos) != 0) {
+                    display.setDigit(pos, valueNewValues[pos]);
+                    display.clearRollTransition(pos);
+                }
+            }
         }
     }
 }
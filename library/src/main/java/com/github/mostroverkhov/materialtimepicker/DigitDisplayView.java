@@ -0,0 +1,501 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityManager;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+/**
+ * Time digits with selection background behind selected digit, drawn by single view. Digits
+ * are in groups of two separated by ':', HH:MM by default. Digit positions are 0..N-1, left to
+ * right. Glyph positions are computed once per size or positions change, and are scaled down if
+ * digits do not fit width.
+ * <p>
+ * Transitions are rendered from progress set by animator (see {@link DigitAnimator}):
+ * selection moving between positions, and roll up of new digit value at position.
+ * Changing digits or transition progress only invalidates this view, never requests layout.
+ * <p>
+ * Accessibility text is shown time and selected position, built only when requested by
+ * accessibility services
+ */
+public class DigitDisplayView extends View {
+
+    public static final int MAX_POSITIONS = 6;
+    public static final int NO_POSITION = -1;
+
+    private static final int NO_ROLL = -1;
+
+    private static final char[] DIGIT_CHARS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9'};
+    private static final char[] SEPARATOR = {':'};
+
+    private static final int[] STATE_SELECTED = {android.R.attr.state_selected};
+    private static final int[] STATE_NOT_SELECTED = {};
+
+    /*ascending, as required by obtainStyledAttributes*/
+    private static final int[] TEXT_APPEARANCE_ATTRS = {
+            android.R.attr.textSize,
+            android.R.attr.textStyle,
+            android.R.attr.textColor};
+
+    private final TextPaint digitPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint separatorPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Drawable selectionDrawable;
+
+    private final int digitWidth;
+    private final int separatorWidth;
+    private final int selectionHeight;
+    private final float textSize;
+    private final float separatorTextSize;
+    private final int selectedColor;
+    private final int digitColor;
+
+    private int positions = 4;
+
+    /*measured glyph positions*/
+    private final float[] digitCenterX = new float[MAX_POSITIONS];
+    /*digit width, scaled down if digits do not fit*/
+    private float cellWidth;
+    private float digitBaseline;
+    private float digitLineHeight;
+    private final float[] separatorX = new float[MAX_POSITIONS / 2 - 1];
+    private float separatorBaseline;
+    private int selectionTop;
+
+    private final int[] digits = new int[MAX_POSITIONS];
+    private int selectedPosition;
+
+    /*selection transition*/
+    private int selectionFrom = NO_POSITION;
+    private int selectionTo = NO_POSITION;
+    private float selectionProgress;
+
+    /*roll transitions: new value rolling in at position, or NO_ROLL*/
+    private final int[] rollValues = {NO_ROLL, NO_ROLL, NO_ROLL, NO_ROLL, NO_ROLL, NO_ROLL};
+    private final float[] rollProgress = new float[MAX_POSITIONS];
+
+    private OnPositionClickListener listener;
+    private int pressedPosition = NO_POSITION;
+
+    private final AccessibilityManager accessibilityManager;
+    private boolean accessibilityUpdatePending;
+    /*one content change event per frame of digit changes*/
+    private final Runnable accessibilityUpdate = new Runnable() {
+        @Override
+        public void run() {
+            accessibilityUpdatePending = false;
+            sendAccessibilityEvent(AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED);
+        }
+    };
+
+    public interface OnPositionClickListener {
+
+        void onPositionClick(int position);
+    }
+
+    public DigitDisplayView(Context context) {
+        this(context, null);
+    }
+
+    public DigitDisplayView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public DigitDisplayView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        /*resolved once per cached theme*/
+        Style style = ThemeCache.getViewStyle(context, getId(), Style.class);
+        if (style == null) {
+            style = new Style(context, attrs, defStyleAttr);
+            if (style.isCacheable()) {
+                ThemeCache.putViewStyle(context, getId(), style);
+            }
+        }
+        digitWidth = style.digitWidth;
+        separatorWidth = style.separatorWidth;
+        selectionHeight = style.selectionHeight;
+        selectionDrawable = style.newSelectionDrawable(getResources());
+        separatorTextSize = style.separatorTextSize;
+        textSize = style.textSize;
+        selectedColor = style.selectedColor;
+        digitColor = style.digitColor;
+
+        digitPaint.setTextAlign(Paint.Align.CENTER);
+        digitPaint.setTypeface(Typeface.defaultFromStyle(style.textStyle));
+
+        separatorPaint.setTextAlign(Paint.Align.CENTER);
+        separatorPaint.setColor(style.separatorColor);
+
+        accessibilityManager = (AccessibilityManager) context.getSystemService(Context.ACCESSIBILITY_SERVICE);
+    }
+
+    public void setOnPositionClickListener(OnPositionClickListener listener) {
+        this.listener = listener;
+    }
+
+    /*number of digits: 2, 4 or 6. Unlike digit changes, requests layout*/
+    public void setPositions(int positions) {
+        if (positions < 2 || positions > MAX_POSITIONS || positions % 2 != 0) {
+            throw new IllegalArgumentException("Positions should be 2, 4 or 6: " + positions);
+        }
+        if (this.positions != positions) {
+            this.positions = positions;
+            clearSelectionTransition();
+            for (int pos = 0; pos < MAX_POSITIONS; pos++) {
+                rollValues[pos] = NO_ROLL;
+            }
+            if (selectedPosition >= positions) {
+                selectedPosition = 0;
+            }
+            if (getWidth() > 0) {
+                layoutGlyphs(getWidth(), getHeight());
+            }
+            requestLayout();
+            notifyAccessibilityContentChanged();
+        }
+    }
+
+    public int getPositions() {
+        return positions;
+    }
+
+    public void setDigit(int position, int value) {
+        if (digits[position] != value) {
+            digits[position] = value;
+            invalidate();
+            notifyAccessibilityContentChanged();
+        }
+    }
+
+    public int getDigit(int position) {
+        return digits[position];
+    }
+
+    public void setSelectedPosition(int position) {
+        if (selectedPosition != position) {
+            selectedPosition = position;
+            invalidate();
+            notifyAccessibilityContentChanged();
+        }
+    }
+
+    public int getSelectedPosition() {
+        return selectedPosition;
+    }
+
+    /*selection moving from -> to, progress in [0, 1]. Selected digit is not highlighted
+    * during transition*/
+    public void setSelectionTransition(int from, int to, float progress) {
+        selectionFrom = from;
+        selectionTo = to;
+        selectionProgress = progress;
+        invalidate();
+    }
+
+    public void clearSelectionTransition() {
+        selectionFrom = NO_POSITION;
+        selectionTo = NO_POSITION;
+        invalidate();
+    }
+
+    /*current digit at position goes up and fades out, newValue rolls up in its place.
+    * progress in [0, 1]*/
+    public void setRollTransition(int position, int newValue, float progress) {
+        rollValues[position] = newValue;
+        rollProgress[position] = progress;
+        invalidate();
+    }
+
+    public void clearRollTransition(int position) {
+        rollValues[position] = NO_ROLL;
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = positions * digitWidth + (positions / 2 - 1) * separatorWidth
+                + getPaddingLeft() + getPaddingRight();
+        final int height = selectionHeight + getPaddingTop() + getPaddingBottom();
+
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec),
+                resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        layoutGlyphs(w, h);
+    }
+
+    private void layoutGlyphs(int w, int h) {
+        final int left = getPaddingLeft();
+        final int right = w - getPaddingRight();
+        final float centerY = getPaddingTop() + (h - getPaddingTop() - getPaddingBottom()) / 2f;
+
+        final int groups = positions / 2;
+        final float available = right - left;
+        final float scale = Math.min(1f, available / (positions * digitWidth + (groups - 1) * separatorWidth));
+        cellWidth = digitWidth * scale;
+        digitPaint.setTextSize(textSize * scale);
+        separatorPaint.setTextSize(separatorTextSize * scale);
+
+        /*first group aligned left, last aligned right, remaining width goes to separators*/
+        final float separatorSpace = groups > 1 ? (available - positions * cellWidth) / (groups - 1) : 0;
+        float x = groups > 1 ? left : left + (available - 2 * cellWidth) / 2;
+        for (int pos = 0; pos < positions; pos++) {
+            digitCenterX[pos] = x + cellWidth / 2;
+            x += cellWidth;
+            if (pos % 2 == 1 && pos < positions - 1) {
+                separatorX[pos / 2] = x + separatorSpace / 2;
+                x += separatorSpace;
+            }
+        }
+
+        final Paint.FontMetrics fm = digitPaint.getFontMetrics();
+        digitBaseline = centerY - (fm.ascent + fm.descent) / 2;
+        digitLineHeight = fm.bottom - fm.top;
+
+        final Paint.FontMetrics separatorFm = separatorPaint.getFontMetrics();
+        separatorBaseline = centerY - (separatorFm.ascent + separatorFm.descent) / 2;
+
+        selectionTop = Math.round(centerY - selectionHeight / 2f);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        drawSelection(canvas);
+
+        for (int i = 0; i < positions / 2 - 1; i++) {
+            canvas.drawText(SEPARATOR, 0, 1, separatorX[i], separatorBaseline, separatorPaint);
+        }
+
+        final boolean inSelectionTransition = selectionFrom != NO_POSITION;
+
+        for (int pos = 0; pos < positions; pos++) {
+            final boolean selected = !inSelectionTransition && pos == selectedPosition;
+            final int color = selected ? selectedColor : digitColor;
+            final int rollValue = rollValues[pos];
+
+            if (rollValue == NO_ROLL) {
+                drawDigit(canvas, digits[pos], pos, 0, color, 255);
+            } else {
+                final float progress = rollProgress[pos];
+                /*old digit is gone in first half of transition*/
+                final float outProgress = ease(Math.min(1f, progress * 2));
+                drawDigit(canvas, digits[pos], pos,
+                        -digitLineHeight / 2 * outProgress,
+                        color,
+                        (int) (255 * (1 - outProgress)));
+                drawDigit(canvas, rollValue, pos,
+                        digitLineHeight * (1 - ease(progress)),
+                        digitColor,
+                        255);
+            }
+        }
+    }
+
+    private void drawSelection(Canvas canvas) {
+        if (selectionDrawable == null) {
+            return;
+        }
+        final float centerX;
+        if (selectionFrom != NO_POSITION) {
+            final float from = digitCenterX[selectionFrom];
+            final float to = digitCenterX[selectionTo];
+            centerX = from + (to - from) * ease(selectionProgress);
+        } else if (selectedPosition != NO_POSITION) {
+            centerX = digitCenterX[selectedPosition];
+        } else {
+            return;
+        }
+        final int left = Math.round(centerX - cellWidth / 2);
+        selectionDrawable.setBounds(left, selectionTop, Math.round(left + cellWidth), selectionTop + selectionHeight);
+        selectionDrawable.draw(canvas);
+    }
+
+    private void drawDigit(Canvas canvas, int value, int position, float dy, int color, int alpha) {
+        if (alpha <= 0) {
+            return;
+        }
+        digitPaint.setColor(color);
+        if (alpha < 255) {
+            digitPaint.setAlpha(alpha * Color.alpha(color) / 255);
+        }
+        canvas.drawText(DIGIT_CHARS, value, 1, digitCenterX[position], digitBaseline + dy, digitPaint);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                pressedPosition = positionAt(event.getX());
+                return pressedPosition != NO_POSITION;
+
+            case MotionEvent.ACTION_UP:
+                final int position = pressedPosition;
+                pressedPosition = NO_POSITION;
+                if (position != NO_POSITION && position == positionAt(event.getX())) {
+                    performClick();
+                    if (listener != null) {
+                        listener.onPositionClick(position);
+                    }
+                }
+                return true;
+
+            case MotionEvent.ACTION_CANCEL:
+                pressedPosition = NO_POSITION;
+                return true;
+
+            default:
+                return pressedPosition != NO_POSITION;
+        }
+    }
+
+    private int positionAt(float x) {
+        for (int pos = 0; pos < positions; pos++) {
+            if (Math.abs(x - digitCenterX[pos]) <= cellWidth / 2) {
+                return pos;
+            }
+        }
+        return NO_POSITION;
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        if (getContentDescription() == null) {
+            info.setContentDescription(getAccessibilityText());
+        }
+    }
+
+    @Override
+    public void onPopulateAccessibilityEvent(AccessibilityEvent event) {
+        super.onPopulateAccessibilityEvent(event);
+        if (getContentDescription() == null) {
+            event.getText().add(getAccessibilityText());
+        }
+    }
+
+    /*shown time, e.g. "14:25, digit 3 of 4 selected"*/
+    private String getAccessibilityText() {
+        final StringBuilder time = new StringBuilder(positions + positions / 2);
+        for (int pos = 0; pos < positions; pos++) {
+            if (pos > 0 && pos % 2 == 0) {
+                time.append(SEPARATOR[0]);
+            }
+            time.append(DIGIT_CHARS[digits[pos]]);
+        }
+        if (selectedPosition == NO_POSITION) {
+            return time.toString();
+        }
+        return getResources().getString(R.string.material_dialog_digits_description,
+                time,
+                selectedPosition + 1,
+                positions);
+    }
+
+    private void notifyAccessibilityContentChanged() {
+        if (!accessibilityUpdatePending
+                && accessibilityManager != null
+                && accessibilityManager.isEnabled()) {
+            accessibilityUpdatePending = true;
+            post(accessibilityUpdate);
+        }
+    }
+
+    /*accelerate - decelerate curve, same as AccelerateDecelerateInterpolator*/
+    private static float ease(float t) {
+        return (float) (Math.cos((t + 1) * Math.PI) / 2.0) + 0.5f;
+    }
+
+    /*attributes of view, colors are taken from state lists. Immutable, shared by views of same
+    cached theme (see ThemeCache)*/
+    static final class Style {
+
+        final int digitWidth;
+        final int separatorWidth;
+        final int selectionHeight;
+        final float textSize;
+        final float separatorTextSize;
+        final int textStyle;
+        final int selectedColor;
+        final int digitColor;
+        final int separatorColor;
+        /*used by first view only if it can not be shared*/
+        private final Drawable selectionDrawable;
+        private final Drawable.ConstantState selectionState;
+
+        Style(Context context, AttributeSet attrs, int defStyleAttr) {
+            final float density = context.getResources().getDisplayMetrics().density;
+            final float scaledDensity = context.getResources().getDisplayMetrics().scaledDensity;
+
+            final TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.DigitDisplayView, defStyleAttr, 0);
+            final int appearanceResId = a.getResourceId(R.styleable.DigitDisplayView_android_textAppearance, 0);
+            digitWidth = a.getDimensionPixelSize(R.styleable.DigitDisplayView_digitWidth, (int) (40 * density));
+            separatorWidth = a.getDimensionPixelSize(R.styleable.DigitDisplayView_separatorWidth, (int) (42 * density));
+            selectionHeight = a.getDimensionPixelSize(R.styleable.DigitDisplayView_selectionHeight, (int) (64 * density));
+            selectionDrawable = a.getDrawable(R.styleable.DigitDisplayView_selectionBackground);
+            final ColorStateList separatorColors = a.getColorStateList(R.styleable.DigitDisplayView_separatorColor);
+            separatorTextSize = a.getDimension(R.styleable.DigitDisplayView_separatorTextSize, 48 * scaledDensity);
+            a.recycle();
+
+            float textSize = 64 * scaledDensity;
+            int textStyle = Typeface.NORMAL;
+            ColorStateList textColor = null;
+
+            if (appearanceResId != 0) {
+                final TypedArray appearance = context.obtainStyledAttributes(appearanceResId, TEXT_APPEARANCE_ATTRS);
+                textSize = appearance.getDimension(0, textSize);
+                textStyle = appearance.getInt(1, textStyle);
+                textColor = appearance.getColorStateList(2);
+                appearance.recycle();
+            }
+            if (textColor == null) {
+                textColor = ColorStateList.valueOf(0xFFFFFFFF);
+            }
+            this.textSize = textSize;
+            this.textStyle = textStyle;
+            selectedColor = textColor.getColorForState(STATE_SELECTED, textColor.getDefaultColor());
+            digitColor = textColor.getColorForState(STATE_NOT_SELECTED, textColor.getDefaultColor());
+            separatorColor = separatorColors != null ? separatorColors.getDefaultColor() : digitColor;
+            selectionState = selectionDrawable != null ? selectionDrawable.getConstantState() : null;
+        }
+
+        boolean isCacheable() {
+            return selectionDrawable == null || selectionState != null;
+        }
+
+        /*drawables are stateful, so each view gets own instance*/
+        Drawable newSelectionDrawable(Resources resources) {
+            return selectionState != null ? selectionState.newDrawable(resources) : selectionDrawable;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+/**
+ * Frame timing of single picker animation, see {@link MaterialTimePickerBuilder#withFrameStats()}
+ */
+public class FrameStats {
+
+    /*circular reveal on dialog open*/
+    public static final int ANIMATION_REVEAL = 1;
+    /*reverse circular reveal on done*/
+    public static final int ANIMATION_REVERSE_REVEAL = 2;
+    /*digit selection and value transitions, from first keystroke until pending ones are done*/
+    public static final int ANIMATION_DIGITS = 3;
+
+    private final int animation;
+    private final int frameCount;
+    private final int jankyFrameCount;
+    private final long worstFrameNanos;
+    private final long durationNanos;
+    private final long frameIntervalNanos;
+    private final int layoutCount;
+
+    FrameStats(int animation,
+               int frameCount,
+               int jankyFrameCount,
+               long worstFrameNanos,
+               long durationNanos,
+               long frameIntervalNanos,
+               int layoutCount) {
+        this.animation = animation;
+        this.frameCount = frameCount;
+        this.jankyFrameCount = jankyFrameCount;
+        this.worstFrameNanos = worstFrameNanos;
+        this.durationNanos = durationNanos;
+        this.frameIntervalNanos = frameIntervalNanos;
+        this.layoutCount = layoutCount;
+    }
+
+    /*one of ANIMATION_ constants*/
+    public int getAnimation() {
+        return animation;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /*frames which took longer than 1.5 of display frame interval*/
+    public int getJankyFrameCount() {
+        return jankyFrameCount;
+    }
+
+    /*longest time between consecutive frames*/
+    public long getWorstFrameNanos() {
+        return worstFrameNanos;
+    }
+
+    /*from animation start to end*/
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /*expected frame interval of display*/
+    public long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+
+    /*layout passes of dialog window during animation. Digits animation should have none:
+    keystrokes only redraw digits and keys*/
+    public int getLayoutCount() {
+        return layoutCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameStats{" +
+                "animation=" + animation +
+                ", frameCount=" + frameCount +
+                ", jankyFrameCount=" + jankyFrameCount +
+                ", worstFrameNanos=" + worstFrameNanos +
+                ", durationNanos=" + durationNanos +
+                ", frameIntervalNanos=" + frameIntervalNanos +
+                ", layoutCount=" + layoutCount +
+                '}';
+    }
+}
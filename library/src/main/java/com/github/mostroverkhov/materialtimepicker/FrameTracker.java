@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.WindowManager;
+
+/**
+ * Counts frames of an animation with Choreographer frame callbacks, and layout passes of window
+ * of layout root view if set, reports {@link FrameStats} to listener once animation is stopped.
+ * Does nothing before API 16. Main thread only
+ */
+class FrameTracker {
+
+    private static final long NANOS_PER_SECOND = 1000L * 1000 * 1000;
+
+    private final int animation;
+    private final long frameIntervalNanos;
+    private final MaterialTimePicker.FrameStatsListener listener;
+    private Object frameCallback;
+    /*null if layout passes are not counted*/
+    private View layoutRoot;
+
+    private boolean tracking;
+    private long startNanos;
+    private long lastFrameNanos;
+    private int frameCount;
+    private int jankyFrameCount;
+    private long worstFrameNanos;
+    private int layoutCount;
+
+    FrameTracker(Context context, int animation, MaterialTimePicker.FrameStatsListener listener) {
+        this.animation = animation;
+        this.listener = listener;
+
+        final float refreshRate = ((WindowManager) context.getSystemService(Context.WINDOW_SERVICE))
+                .getDefaultDisplay()
+                .getRefreshRate();
+        frameIntervalNanos = (long) (NANOS_PER_SECOND / (refreshRate > 0 ? refreshRate : 60));
+    }
+
+    /*counts layout passes of window of root while tracking*/
+    void setLayoutRoot(View layoutRoot) {
+        this.layoutRoot = layoutRoot;
+    }
+
+    static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+    }
+
+    void start() {
+        if (tracking || !isSupported()) {
+            return;
+        }
+        tracking = true;
+        startNanos = System.nanoTime();
+        lastFrameNanos = 0;
+        frameCount = 0;
+        jankyFrameCount = 0;
+        worstFrameNanos = 0;
+        layoutCount = 0;
+
+        if (frameCallback == null) {
+            frameCallback = new Callback();
+        }
+        final Callback callback = (Callback) frameCallback;
+        callback.post();
+        if (layoutRoot != null) {
+            callback.observeLayout(layoutRoot);
+        }
+    }
+
+    void stop() {
+        if (!tracking) {
+            return;
+        }
+        tracking = false;
+        ((Callback) frameCallback).remove();
+
+        listener.onFrameStats(new FrameStats(animation,
+                frameCount,
+                jankyFrameCount,
+                worstFrameNanos,
+                System.nanoTime() - startNanos,
+                frameIntervalNanos,
+                layoutCount));
+    }
+
+    /*stops without reporting*/
+    void cancel() {
+        if (tracking) {
+            tracking = false;
+            ((Callback) frameCallback).remove();
+        }
+    }
+
+    private void onFrame(long frameTimeNanos) {
+        if (lastFrameNanos > 0) {
+            final long frameNanos = frameTimeNanos - lastFrameNanos;
+            frameCount++;
+            worstFrameNanos = Math.max(worstFrameNanos, frameNanos);
+            if (frameNanos > frameIntervalNanos * 3 / 2) {
+                jankyFrameCount++;
+            }
+        }
+        lastFrameNanos = frameTimeNanos;
+    }
+
+    /*kept separate, so FrameTracker itself loads before API 16*/
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class Callback implements Choreographer.FrameCallback,
+            ViewTreeObserver.OnGlobalLayoutListener {
+
+        /*null unless layout is observed*/
+        private ViewTreeObserver layoutObserver;
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (tracking) {
+                onFrame(frameTimeNanos);
+                post();
+            }
+        }
+
+        @Override
+        public void onGlobalLayout() {
+            if (tracking) {
+                layoutCount++;
+            }
+        }
+
+        void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void observeLayout(View root) {
+            layoutObserver = root.getViewTreeObserver();
+            layoutObserver.addOnGlobalLayoutListener(this);
+        }
+
+        void remove() {
+            Choreographer.getInstance().removeFrameCallback(this);
+            if (layoutObserver != null) {
+                if (layoutObserver.isAlive()) {
+                    layoutObserver.removeOnGlobalLayoutListener(this);
+                }
+                layoutObserver = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
+import android.support.v4.widget.ExploreByTouchHelper;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+
+import java.util.List;
+
+/**
+ * Digits keyboard: 1-9 in 3 rows, 0 in the middle of 4th. Measures, draws and hit-tests all
+ * keys itself. Enabled keys are set as bitmask, digit N is enabled if bit N is set.
+ * Keys text is styled by textAppearance: textColor (enabled and disabled state), textSize, textStyle.
+ * Each key is exposed to accessibility services as virtual view with digit as its id
+ */
+public class KeypadView extends View {
+
+    private static final int COLUMNS = 3;
+    private static final int ROWS = 4;
+    private static final int NO_DIGIT = -1;
+
+    /*digit of each cell, row by row*/
+    private static final int[] CELL_DIGITS = {
+            1, 2, 3,
+            4, 5, 6,
+            7, 8, 9,
+            NO_DIGIT, 0, NO_DIGIT};
+
+    private static final char[] DIGIT_CHARS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9'};
+
+    private static final int[] STATE_ENABLED = {android.R.attr.state_enabled};
+    private static final int[] STATE_DISABLED = {};
+
+    /*ascending, as required by obtainStyledAttributes*/
+    private static final int[] TEXT_APPEARANCE_ATTRS = {
+            android.R.attr.textSize,
+            android.R.attr.textStyle,
+            android.R.attr.textColor};
+
+    private static final int ALL_DIGITS = 0x3FF;
+
+    private final TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final float[] digitX = new float[10];
+    private final float[] digitBaseline = new float[10];
+
+    private int keyWidth;
+    private int keyHeight;
+    private int enabledColor;
+    private int disabledColor;
+
+    private int enabledDigits = ALL_DIGITS;
+    private int pressedDigit = NO_DIGIT;
+    private float cellWidth;
+    private float cellHeight;
+
+    private final KeypadAccessibilityHelper accessibilityHelper;
+
+    private OnDigitClickListener listener;
+
+    public interface OnDigitClickListener {
+
+        void onDigitClick(int digit);
+    }
+
+    public KeypadView(Context context) {
+        this(context, null);
+    }
+
+    public KeypadView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public KeypadView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        /*resolved once per cached theme*/
+        Style style = ThemeCache.getViewStyle(context, getId(), Style.class);
+        if (style == null) {
+            style = new Style(context, attrs, defStyleAttr);
+            ThemeCache.putViewStyle(context, getId(), style);
+        }
+        keyWidth = style.keyWidth;
+        keyHeight = style.keyHeight;
+        enabledColor = style.enabledColor;
+        disabledColor = style.disabledColor;
+
+        paint.setTextSize(style.textSize);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setTypeface(Typeface.defaultFromStyle(style.textStyle));
+
+        accessibilityHelper = new KeypadAccessibilityHelper(this);
+        ViewCompat.setAccessibilityDelegate(this, accessibilityHelper);
+    }
+
+    public void setOnDigitClickListener(OnDigitClickListener listener) {
+        this.listener = listener;
+    }
+
+    /*bit N is set if digit N is enabled*/
+    public void setEnabledDigits(int digitsMask) {
+        if (enabledDigits != digitsMask) {
+            enabledDigits = digitsMask;
+            invalidate();
+            /*no op unless accessibility is enabled*/
+            accessibilityHelper.invalidateRoot();
+        }
+    }
+
+    public int getEnabledDigits() {
+        return enabledDigits;
+    }
+
+    public boolean isDigitEnabled(int digit) {
+        return (enabledDigits & (1 << digit)) != 0;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = COLUMNS * keyWidth + getPaddingLeft() + getPaddingRight();
+        final int height = ROWS * keyHeight + getPaddingTop() + getPaddingBottom();
+
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec),
+                resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        cellWidth = (float) (w - getPaddingLeft() - getPaddingRight()) / COLUMNS;
+        cellHeight = (float) (h - getPaddingTop() - getPaddingBottom()) / ROWS;
+
+        /*baseline offset which centers digits vertically in cell*/
+        final Paint.FontMetrics fm = paint.getFontMetrics();
+        final float baselineOffset = cellHeight / 2 - (fm.ascent + fm.descent) / 2;
+
+        for (int cell = 0; cell < CELL_DIGITS.length; cell++) {
+            final int digit = CELL_DIGITS[cell];
+            if (digit != NO_DIGIT) {
+                final int row = cell / COLUMNS;
+                final int col = cell % COLUMNS;
+                digitX[digit] = getPaddingLeft() + col * cellWidth + cellWidth / 2;
+                digitBaseline[digit] = getPaddingTop() + row * cellHeight + baselineOffset;
+            }
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        for (int digit = 0; digit < DIGIT_CHARS.length; digit++) {
+            paint.setColor(isDigitEnabled(digit) ? enabledColor : disabledColor);
+            canvas.drawText(DIGIT_CHARS, digit, 1, digitX[digit], digitBaseline[digit], paint);
+        }
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return accessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                pressedDigit = digitAt(event.getX(), event.getY());
+                return pressedDigit != NO_DIGIT;
+
+            case MotionEvent.ACTION_UP:
+                final int digit = pressedDigit;
+                pressedDigit = NO_DIGIT;
+                if (digit != NO_DIGIT
+                        && digit == digitAt(event.getX(), event.getY())
+                        && isDigitEnabled(digit)) {
+                    performClick();
+                    if (listener != null) {
+                        listener.onDigitClick(digit);
+                    }
+                }
+                return true;
+
+            case MotionEvent.ACTION_CANCEL:
+                pressedDigit = NO_DIGIT;
+                return true;
+
+            default:
+                return pressedDigit != NO_DIGIT;
+        }
+    }
+
+    private int digitAt(float x, float y) {
+        if (cellWidth <= 0 || cellHeight <= 0) {
+            return NO_DIGIT;
+        }
+        final int col = (int) ((x - getPaddingLeft()) / cellWidth);
+        final int row = (int) ((y - getPaddingTop()) / cellHeight);
+
+        if (x < getPaddingLeft() || y < getPaddingTop() || col >= COLUMNS || row >= ROWS) {
+            return NO_DIGIT;
+        }
+        return CELL_DIGITS[row * COLUMNS + col];
+    }
+
+    private void getKeyBounds(int digit, Rect bounds) {
+        /*0 is in the middle of 4th row*/
+        final int cell = digit == 0 ? COLUMNS * (ROWS - 1) + 1 : digit - 1;
+        final int row = cell / COLUMNS;
+        final int col = cell % COLUMNS;
+        final float left = getPaddingLeft() + col * cellWidth;
+        final float top = getPaddingTop() + row * cellHeight;
+        bounds.set((int) left, (int) top, (int) (left + cellWidth), (int) (top + cellHeight));
+    }
+
+    /*virtual view per key, id is digit. Disabled keys are exposed without click action*/
+    private class KeypadAccessibilityHelper extends ExploreByTouchHelper {
+
+        private final Rect keyBounds = new Rect();
+
+        KeypadAccessibilityHelper(View host) {
+            super(host);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            final int digit = digitAt(x, y);
+            return digit != NO_DIGIT ? digit : INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            /*in reading order*/
+            for (int digit : CELL_DIGITS) {
+                if (digit != NO_DIGIT) {
+                    virtualViewIds.add(digit);
+                }
+            }
+        }
+
+        @Override
+        protected void onPopulateEventForVirtualView(int virtualViewId, AccessibilityEvent event) {
+            event.setContentDescription(String.valueOf(DIGIT_CHARS[virtualViewId]));
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, AccessibilityNodeInfoCompat node) {
+            final boolean enabled = isDigitEnabled(virtualViewId);
+
+            node.setContentDescription(String.valueOf(DIGIT_CHARS[virtualViewId]));
+            node.setEnabled(enabled);
+            node.setClickable(enabled);
+            if (enabled) {
+                node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            }
+            getKeyBounds(virtualViewId, keyBounds);
+            node.setBoundsInParent(keyBounds);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, Bundle arguments) {
+            if (action != AccessibilityNodeInfoCompat.ACTION_CLICK || !isDigitEnabled(virtualViewId)) {
+                return false;
+            }
+            sendEventForVirtualView(virtualViewId, AccessibilityEvent.TYPE_VIEW_CLICKED);
+            if (listener != null) {
+                listener.onDigitClick(virtualViewId);
+            }
+            return true;
+        }
+    }
+
+    /*attributes of view, colors are taken from state list. Immutable, shared by views of same
+    cached theme (see ThemeCache)*/
+    static final class Style {
+
+        final int keyWidth;
+        final int keyHeight;
+        final float textSize;
+        final int textStyle;
+        final int enabledColor;
+        final int disabledColor;
+
+        Style(Context context, AttributeSet attrs, int defStyleAttr) {
+            final float density = context.getResources().getDisplayMetrics().density;
+
+            final TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.KeypadView, defStyleAttr, 0);
+            final int appearanceResId = a.getResourceId(R.styleable.KeypadView_android_textAppearance, 0);
+            keyWidth = a.getDimensionPixelSize(R.styleable.KeypadView_keyWidth, (int) (70 * density));
+            keyHeight = a.getDimensionPixelSize(R.styleable.KeypadView_keyHeight, (int) (64 * density));
+            a.recycle();
+
+            float textSize = 14 * context.getResources().getDisplayMetrics().scaledDensity;
+            int textStyle = Typeface.NORMAL;
+            ColorStateList textColor = null;
+
+            if (appearanceResId != 0) {
+                final TypedArray appearance = context.obtainStyledAttributes(appearanceResId, TEXT_APPEARANCE_ATTRS);
+                textSize = appearance.getDimension(0, textSize);
+                textStyle = appearance.getInt(1, textStyle);
+                textColor = appearance.getColorStateList(2);
+                appearance.recycle();
+            }
+            if (textColor == null) {
+                textColor = ColorStateList.valueOf(0xFF000000);
+            }
+            this.textSize = textSize;
+            this.textStyle = textStyle;
+            enabledColor = textColor.getColorForState(STATE_ENABLED, textColor.getDefaultColor());
+            disabledColor = textColor.getColorForState(STATE_DISABLED, textColor.getDefaultColor());
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.github.mostroverkhov.materialtimepicker;
 
 import android.app.Activity;
 import android.app.Dialog;
+import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.res.TypedArray;
@@ -25,71 +26,112 @@ import android.graphics.Color;
 import android.graphics.Point;
 import android.graphics.drawable.ColorDrawable;
 import android.os.Bundle;
-import android.os.Parcel;
-import android.os.Parcelable;
 import android.support.annotation.NonNull;
+import android.support.annotation.StyleRes;
 import android.support.v4.app.DialogFragment;
 import android.support.v4.app.Fragment;
-import android.view.ContextThemeWrapper;
+import android.text.format.DateFormat;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.Window;
-import android.widget.GridLayout;
 import android.widget.TextView;
 
-import java.util.HashSet;
-import java.util.Set;
+import com.github.mostroverkhov.materialtimepicker.core.AvailabilityIndex;
+import com.github.mostroverkhov.materialtimepicker.core.RangeEntry;
+import com.github.mostroverkhov.materialtimepicker.core.State;
+import com.github.mostroverkhov.materialtimepicker.core.Time;
+import com.github.mostroverkhov.materialtimepicker.core.TimeConstraints;
+import com.github.mostroverkhov.materialtimepicker.core.TimeConverter;
+import com.github.mostroverkhov.materialtimepicker.core.TimeEntry;
+import com.github.mostroverkhov.materialtimepicker.core.TimeFormat;
+
+import java.text.DateFormatSymbols;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.mostroverkhov.materialtimepicker.Util.*;
 import static com.github.mostroverkhov.materialtimepicker.Util.assertArgs;
 import static com.github.mostroverkhov.materialtimepicker.Util.circularReveal;
-import static com.github.mostroverkhov.materialtimepicker.Util.fillGridAndSetItemsListener;
-import static com.github.mostroverkhov.materialtimepicker.Util.millisToTime;
+import static com.github.mostroverkhov.materialtimepicker.Util.inflateDialogRoot;
 import static com.github.mostroverkhov.materialtimepicker.Util.newCallbacks;
 import static com.github.mostroverkhov.materialtimepicker.Util.reverseCircularReveal;
-import static com.github.mostroverkhov.materialtimepicker.Util.timeToMillis;
+import static com.github.mostroverkhov.materialtimepicker.core.TimeConversions.millisToTime;
+import static com.github.mostroverkhov.materialtimepicker.core.TimeConversions.minuteOfDayToMillis;
+import static com.github.mostroverkhov.materialtimepicker.core.TimeConversions.secondOfMinute;
+import static com.github.mostroverkhov.materialtimepicker.core.TimeConversions.timeToMillis;
 
 /**
  * Created by maksym ostroverkhov on 12.02.2016.
  */
 public class MaterialTimePicker extends DialogFragment {
 
-    private static final int SPECIAL_CASE_ANIM_DELAY = 70;
-
     private static final String SAVE_KEY_STATE = "savedState:state";
     private static final String SAVE_KEY_TIME = "savedState:time";
+    private static final String SAVE_KEY_BATCH = "savedState:batch";
+    private static final String SAVE_KEY_END_TIME = "savedState:endTime";
+    private static final String SAVE_KEY_SECONDS = "savedState:seconds";
 
     public static final String ARGS_KEY_TIME = "args:time";
     public static final String ARGS_KEY_TARGET = "args:target";
     public static final String ARGS_KEY_TOUCH_POINT = "args:touchAbsPoint";
     public static final String ARGS_KEY_THEME_RES_ID = "args:themeResId";
+    public static final String ARGS_KEY_KEEP_WARM = "args:keepWarm";
+    public static final String ARGS_KEY_BATCH = "args:batch";
+    public static final String ARGS_KEY_END_TIME = "args:endTime";
+    public static final String ARGS_KEY_OVERNIGHT = "args:overnight";
+    public static final String ARGS_KEY_MIN_MINUTE = "args:minMinute";
+    public static final String ARGS_KEY_MAX_MINUTE = "args:maxMinute";
+    public static final String ARGS_KEY_MINUTE_STEP = "args:minuteStep";
+    public static final String ARGS_KEY_BLOCKED_STARTS = "args:blockedStarts";
+    public static final String ARGS_KEY_BLOCKED_ENDS = "args:blockedEnds";
+    public static final String ARGS_KEY_ASYNC_AVAILABILITY = "args:asyncAvailability";
+    public static final String ARGS_KEY_FRAME_STATS = "args:frameStats";
+    public static final String ARGS_KEY_HOUR_FORMAT = "args:hourFormat";
+    public static final String ARGS_KEY_FORMAT = "args:format";
 
     public static final String ARGS_KEY_REQUEST_CODE = "args:requestCode";
     public static final String EXTRA_SELECTED_MILLIS = "result:timeMillis";
+    public static final String EXTRA_SELECTED_MILLIS_ARRAY = "result:timeMillisArray";
+    public static final String EXTRA_SELECTED_END_MILLIS = "result:endTimeMillis";
 
-    private HashSet<Integer> digitsSet;
+    /*hour formats, see MaterialTimePickerBuilder.withHourFormat()*/
+    public static final int HOUR_FORMAT_24 = 0;
+    public static final int HOUR_FORMAT_12 = 1;
+    /*12 or 24 hour, as set on device for current locale*/
+    public static final int HOUR_FORMAT_LOCALE = 2;
 
     private View root;
     private View contentView;
-    private TextView firstHour;
-    private TextView secHour;
-    private TextView firstMin;
-    private TextView secMin;
-    private GridLayout keyboardGridView;
-    private View animatedView;
-    private TextView animationUtilView;
-    private TextView animationUtilSpecial;
-    private View okButton;
-
-    private DigitAnimator animator;
+    private TextView okButton;
+    private View doneButton;
+    private TextView header;
+
+    private TimePickerController controller;
     private boolean newDialogInstance;
 
+    /*null if frame stats are not reported*/
+    private FrameTracker revealTracker;
+    private FrameTracker reverseRevealTracker;
+    private FrameTracker digitsTracker;
+
     /*dialog state */
-    private State state;
-    private Time time;
+    private TimeEntry entry;
+    /*null unless in range mode, entry is null then*/
+    private RangeEntry range;
+    private boolean batch;
+    private boolean twelveHour;
+    private TimeFormat format;
+    /*minutes of day added in batch mode*/
+    private int[] batchMinutes;
+    private int batchCount;
+    /*null unless availability is loaded from AvailabilityProvider*/
+    private AvailabilityLoader availabilityLoader;
+    private boolean availabilityPending;
+    private boolean noFreeTime;
     private PrivateCallbacks callbacks;
     private Point revealStartPoint;
     private int dialogThemeResId;
+    private int dialogStyleResId;
 
     public interface Callbacks {
 
@@ -98,6 +140,79 @@ public class MaterialTimePicker extends DialogFragment {
         void onCancelled();
     }
 
+    /**
+     * Dialog mode result as primitive time of day, with no allocation and no epoch millis
+     * conversion. Field accessors and conversion to millis on reference date and zone are in
+     * {@link com.github.mostroverkhov.materialtimepicker.core.TimeOfDay}. Target fragment
+     * implementing it receives time and cancellation here instead of onActivityResult(), unless
+     * dialog is in batch or range mode
+     */
+    public interface TimeOfDayCallbacks {
+
+        /**
+         * @param minuteOfDay entered time, in [0, 1440). Minutes of duration for MM:SS format
+         * @param seconds     0 unless format has seconds
+         */
+        void onTimeOfDaySelected(int minuteOfDay, int seconds);
+
+        void onCancelled();
+    }
+
+    /*Batch mode results, see MaterialTimePickerBuilder.batch()*/
+    public interface BatchCallbacks {
+
+        /*added times, in order of entry. Empty if done was pressed before anything was added*/
+        void onTimesSelected(long[] millis);
+
+        void onCancelled();
+    }
+
+    /*Range mode results, see MaterialTimePickerBuilder.range()*/
+    public interface RangeCallbacks {
+
+        /*end is on the day after start if range wraps midnight*/
+        void onRangeSelected(long startMillis, long endMillis);
+
+        void onCancelled();
+    }
+
+    /*Frame timing of dialog animations, see FrameStats and
+    MaterialTimePickerBuilder.withFrameStats()*/
+    public interface FrameStatsListener {
+
+        void onFrameStats(FrameStats stats);
+    }
+
+    /**
+     * Inflates dialog view hierarchy for theme in background, next dialog with this theme
+     * uses it instead of inflating on main thread. Should be called on main thread, some time
+     * before dialog is shown. Views are themed with context theme, so it should be activity which
+     * shows dialog. Context is not retained
+     *
+     * @param themeResId dialog theme, same as in {@link MaterialTimePickerBuilder#withTheme(int)}
+     */
+    public static void prewarm(@NonNull Context context, @StyleRes int themeResId) {
+        final int styleResId = getStyleReference(context, themeResId > 0
+                ? themeResId
+                : R.style.DefMaterialDialogStyle);
+
+        ViewPrewarmer.getInstance().prewarm(context, styleResId);
+    }
+
+    /**
+     * True while blocked intervals are loaded from {@link AvailabilityProvider}. Keys are enabled
+     * by intervals loaded so far and updated as more arrive, time can be entered but not confirmed.
+     * Stays true if provider throws
+     */
+    public boolean isAvailabilityPending() {
+        return availabilityPending;
+    }
+
+    /*Counters of dialogs created with and without prewarmed view hierarchy*/
+    public static PrewarmStats getPrewarmStats() {
+        return ViewPrewarmer.getInstance().getStats();
+    }
+
     @Override
     public void onAttach(Activity activity) {
 
@@ -117,42 +232,53 @@ public class MaterialTimePicker extends DialogFragment {
     @Override
     public Dialog onCreateDialog(Bundle savedInstanceState) {
 
+        /*time zone may have changed since last conversion*/
+        TimeConverter.refreshDefaultZone();
         initState(savedInstanceState);
 
-        final int resourceId = getStyleReference(getActivity(), dialogThemeResId);
-        final ContextThemeWrapper context = new ContextThemeWrapper(getActivity(), resourceId);
+        dialogStyleResId = getStyleReference(getActivity(), dialogThemeResId);
 
-        LayoutInflater inflater = LayoutInflater.from(context);
-        root = inflater.inflate(R.layout.material_dialog_root, null);
+        root = ViewPrewarmer.getInstance().take(getActivity(), dialogStyleResId);
+        if (root == null) {
+            final Context context = ThemeCache.getInstance().themedContext(getActivity(), dialogStyleResId);
+            root = inflateDialogRoot(LayoutInflater.from(context));
+        }
         contentView = root.findViewById(R.id.material_dialog_root_id);
-        keyboardGridView = (GridLayout) root.findViewById(R.id.material_dialog_keyboard);
-        animatedView = root.findViewById(R.id.material_dialog_animated_bg);
-        animationUtilView = (TextView) root.findViewById(R.id.material_dialog_digit_animation_util);
-        animationUtilSpecial = (TextView) root.findViewById(R.id.material_dialog_digit_animation_util_special_case);
-        firstHour = (TextView) root.findViewById(R.id.material_dialog_first_hour);
-        secHour = (TextView) root.findViewById(R.id.material_dialog_second_hour);
-        firstMin = (TextView) root.findViewById(R.id.material_dialog_first_min);
-        secMin = (TextView) root.findViewById(R.id.material_dialog_second_min);
-        okButton = root.findViewById(R.id.material_dialog_ok_button);
+        okButton = (TextView) root.findViewById(R.id.material_dialog_ok_button);
+        doneButton = root.findViewById(R.id.material_dialog_done_button);
+        header = (TextView) root.findViewById(R.id.material_dialog_top_header);
 
-        bindDigitViewsToStates();
+        final DigitDisplayView digitsView = (DigitDisplayView) root.findViewById(R.id.material_dialog_digits);
+        final KeypadView keypadView = (KeypadView) root.findViewById(R.id.material_dialog_keyboard);
+        controller = range != null
+                ? new TimePickerController(digitsView, keypadView, range)
+                : new TimePickerController(digitsView, keypadView, entry);
+        if (twelveHour) {
+            controller.setAmPmView((TextView) root.findViewById(R.id.material_dialog_am_pm));
+        }
 
-        animator = new DigitAnimator(
-                state.targetView(this),
-                animatedView,
-                animationUtilView,
-                animationUtilSpecial,
-                new SelectionAnimatorListener());
+        initFrameTrackers();
 
-        setUiListeners(inflater);
+        setUiListeners();
 
-        state.setUi(this);
+        if (batch) {
+            okButton.setText(R.string.material_dialog_add_button);
+            doneButton.setVisibility(View.VISIBLE);
+            updateBatchCaption();
+        }
+        if (range != null) {
+            updateRangeCaption();
+        }
+
+        if (getArguments().getBoolean(ARGS_KEY_ASYNC_AVAILABILITY)) {
+            startAvailabilityLoading();
+        }
 
         return newDialog();
     }
 
-    static int getStyleReference(Activity activity, int defStyle) {
-        final TypedArray typedArray = activity.getTheme().obtainStyledAttributes(new int[]{R.attr.materialDialogStyle});
+    static int getStyleReference(Context context, int defStyle) {
+        final TypedArray typedArray = context.getTheme().obtainStyledAttributes(new int[]{R.attr.materialDialogStyle});
         final int resourceId = typedArray.getResourceId(0, defStyle);
         typedArray.recycle();
         return resourceId;
@@ -178,8 +304,18 @@ public class MaterialTimePicker extends DialogFragment {
     public void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
 
-        outState.putInt(SAVE_KEY_STATE, state.getSaveState());
-        outState.putParcelable(SAVE_KEY_TIME, time);
+        if (range != null) {
+            outState.putInt(SAVE_KEY_STATE, range.getPosition());
+            outState.putInt(SAVE_KEY_TIME, range.getStart().getTime().getMinuteOfDay());
+            outState.putInt(SAVE_KEY_END_TIME, range.getEnd().getTime().getMinuteOfDay());
+        } else {
+            outState.putInt(SAVE_KEY_STATE, entry.getState().getSaveState());
+            outState.putInt(SAVE_KEY_TIME, entry.getTime().getMinuteOfDay());
+            outState.putInt(SAVE_KEY_SECONDS, entry.getTime().getSeconds());
+        }
+        if (batch) {
+            outState.putIntArray(SAVE_KEY_BATCH, Arrays.copyOf(batchMinutes, batchCount));
+        }
     }
 
     @Override
@@ -193,416 +329,427 @@ public class MaterialTimePicker extends DialogFragment {
 
         if (newDialogInstance) {
             newDialogInstance = false;
-            circularReveal(contentView, revealStartPoint);
+            circularReveal(contentView, revealStartPoint, revealTracker);
         }
     }
 
-    private void setUiListeners(LayoutInflater inflater) {
+    private void setUiListeners() {
 
-        setHoursAnimatorListener(animator, firstHour, secHour, firstMin, secMin);
-
-        fillGridAndSetItemsListener(inflater, keyboardGridView, new View.OnClickListener() {
+        okButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-
-                if (!animator.isAnimating()) {
-
-                    final MaterialTimePicker self = MaterialTimePicker.this;
-                    final Integer value = (Integer) v.getTag(R.id.time_kb_val);
-                    final boolean changed = state.setTimeValue(self, value);
-                    state = state.next(self);
-
-                    if (changed) {
-                        animator.animateTo(state.targetView(self), String.valueOf(value));
-                    } else {
-                        animator.animateTo(state.targetView(self));
-                    }
-
-                    addressSpecialCases();
+                if (batch) {
+                    addToBatch();
+                } else if (range != null && callbacks != null) {
+                    reverseRevealAndDismiss(okButton, new Runnable() {
+                        @Override
+                        public void run() {
+                            deliverRange();
+                        }
+                    });
+                } else if (callbacks != null) {
+                    reverseRevealAndDismiss(okButton, new Runnable() {
+                        @Override
+                        public void run() {
+                            deliverTime();
+                        }
+                    });
                 }
             }
         });
-        okButton.setOnClickListener(new View.OnClickListener() {
+
+        if (range != null) {
+            header.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    /*toggles between start and end*/
+                    controller.selectRangePosition(range.isEndCurrent() ? 0 : RangeEntry.TIME_POSITIONS);
+                }
+            });
+            controller.setCallback(new TimePickerController.Callback() {
+                @Override
+                public void onTimeChanged(TimeEntry entry) {
+                }
+
+                @Override
+                public void onEntrySwitched(TimeEntry entry) {
+                    updateRangeCaption();
+                }
+            });
+        }
+
+        doneButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
                 if (callbacks != null) {
-                    reverseCircularReveal(contentView, getAbsCoordsFor(okButton),
-                            new SupportAnimatorListener() {
-                                @Override
-                                public void onAnimationEnd() {
-                            /*hide root as to avoid dialog exit anim after reverse circular reveal*/
-                                    root.setVisibility(View.INVISIBLE);
-                                    callbacks.onTimeSelected(timeToMillis(time));
-                                    dismiss();
-                                }
-                            });
+                    reverseRevealAndDismiss(doneButton, new Runnable() {
+                        @Override
+                        public void run() {
+                            callbacks.onTimesSelected(batchMillis());
+                        }
+                    });
                 }
             }
         });
     }
 
-    private void addressSpecialCases() {
-
-        /*selected hours -> 15, then change first hour to 2 (valid value) yields 25. Address by
-        * changing second hour to 3 with animation up*/
-        if (time.getFirstHour() == 2 && time.getSecHour() > 4) {
-            time.setSecHour(3);
-            animator.animateValue(State.SEC_HOUR.targetView(MaterialTimePicker.this),
-                    "3",
-                    SPECIAL_CASE_ANIM_DELAY);
-        }
-    }
-
-    @Override
-    public void onCancel(DialogInterface dialog) {
-        if (callbacks != null) {
-            callbacks.onCancelled();
-        }
-        super.onCancel(dialog);
-    }
-
-    private void bindDigitViewsToStates() {
-        firstHour.setTag(R.id.view_state_id, State.FIRST_HOUR);
-        secHour.setTag(R.id.view_state_id, State.SEC_HOUR);
-        firstMin.setTag(R.id.view_state_id, State.FIRST_MIN);
-        secMin.setTag(R.id.view_state_id, State.SEC_MIN);
+    /*result is delivered once reverse reveal ends, before dialog is dismissed*/
+    private void reverseRevealAndDismiss(View fromView, final Runnable deliverResult) {
+        reverseCircularReveal(contentView, getAbsCoordsFor(fromView),
+                new SupportAnimatorListener() {
+                    @Override
+                    public void onAnimationEnd() {
+                        /*hide root as to avoid dialog exit anim after reverse circular reveal*/
+                        root.setVisibility(View.INVISIBLE);
+                        /*results are converted to millis in current zone*/
+                        TimeConverter.refreshDefaultZone();
+                        deliverResult.run();
+                        dismiss();
+                    }
+                },
+                reverseRevealTracker);
     }
 
-    private void initState(Bundle savedInstanceState) {
-
-        final Bundle arguments = getArguments();
-
-        if (savedInstanceState == null) {
-            initProvidedState(arguments);
+    /*millis are computed only for Callbacks target*/
+    private void deliverTime() {
+        if (callbacks.isTimeOfDayTarget()) {
+            final Time time = entry.getTime();
+            callbacks.onTimeOfDaySelected(time.getMinuteOfDay(), time.getSeconds());
         } else {
-            initSavedState(savedInstanceState);
+            callbacks.onTimeSelected(selectedMillis());
         }
-        revealStartPoint = arguments.containsKey(ARGS_KEY_TOUCH_POINT)
-                ? arguments.<Point>getParcelable(ARGS_KEY_TOUCH_POINT)
-                : defaultRevealStartPoint();
-
-        dialogThemeResId = arguments.containsKey(ARGS_KEY_THEME_RES_ID)
-                ? arguments.getInt(ARGS_KEY_THEME_RES_ID)
-                : R.style.DefMaterialDialogStyle;
     }
 
-    private void initSavedState(Bundle savedInstanceState) {
-        time = savedInstanceState.getParcelable(SAVE_KEY_TIME);
-        state = State.getFromSaveState(savedInstanceState.getInt(SAVE_KEY_STATE));
+    /*MM:SS is duration, other formats are time of today*/
+    private long selectedMillis() {
+        final Time time = entry.getTime();
+        return format == TimeFormat.MM_SS
+                ? TimeUnit.SECONDS.toMillis(time.getSecondOfDay())
+                : timeToMillis(time);
     }
 
-    private void initProvidedState(Bundle args) {
-
-        newDialogInstance = true;
-
-        final long timeMillis = args.getLong(ARGS_KEY_TIME);
+    /*keeps entered time on display, so similar next time needs fewer keystrokes*/
+    private void addToBatch() {
+        if (batchCount == batchMinutes.length) {
+            batchMinutes = Arrays.copyOf(batchMinutes, batchCount * 2);
+        }
+        final int minuteOfDay = entry.getTime().getMinuteOfDay();
+        batchMinutes[batchCount++] = minuteOfDay;
 
-        time = timeMillis == 0 ? new Time() : millisToTime(timeMillis);
-        state = State.FIRST_HOUR;
+        controller.bind(minuteOfDay, State.FIRST_HOUR);
+        updateBatchCaption();
     }
 
-    private void setHoursAnimatorListener(final DigitAnimator animator, View... views) {
-
-        final View.OnClickListener listener = new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-
-                state = (State) v.getTag(R.id.view_state_id);
-                animator.animateTo(state.targetView(MaterialTimePicker.this));
+    private void updateRangeCaption() {
+        if (range.isEndCurrent()) {
+            final Time start = range.getStart().getTime();
+            if (twelveHour) {
+                final String amPm = DateFormatSymbols.getInstance().getAmPmStrings()[start.isPm() ? 1 : 0];
+                header.setText(getString(R.string.set_time_end_caption_12, start.getClockHours(), start.getMinutes(), amPm));
+            } else {
+                header.setText(getString(R.string.set_time_end_caption, start.getHours(), start.getMinutes()));
             }
-        };
-
-        for (View view : views) {
-            view.setOnClickListener(listener);
+        } else {
+            header.setText(R.string.set_time_start_caption);
         }
     }
 
-    private void setEnabledKeyboardDigits(int... enabledDigits) {
+    private void deliverRange() {
+        final long startMillis = timeToMillis(range.getStart().getTime());
+        /*reference in the middle of next day, not affected by DST shifts*/
+        final long endReference = range.wrapsMidnight()
+                ? minuteOfDayToMillis(12 * 60, startMillis) + TimeUnit.DAYS.toMillis(1)
+                : startMillis;
+        final long endMillis = minuteOfDayToMillis(range.getEnd().getTime().getMinuteOfDay(), endReference);
+        callbacks.onRangeSelected(startMillis, endMillis);
+    }
 
-        final Set<Integer> digits = getDigitsSet(enabledDigits.length);
-        for (int digit : enabledDigits) {
-            digits.add(digit);
-        }
+    private void updateBatchCaption() {
+        header.setText(getString(R.string.set_time_batch_caption, batchCount));
+    }
 
-        for (int i = 0; i < keyboardGridView.getChildCount(); i++) {
-            final View child = keyboardGridView.getChildAt(i);
-            child.setEnabled(digits.contains(child.getTag(R.id.time_kb_val)));
+    private long[] batchMillis() {
+        final long now = System.currentTimeMillis();
+        final long[] millis = new long[batchCount];
+        for (int i = 0; i < batchCount; i++) {
+            millis[i] = minuteOfDayToMillis(batchMinutes[i], now);
         }
+        return millis;
     }
 
-    private Set<Integer> getDigitsSet(int size) {
-
-        if (digitsSet == null) {
-            digitsSet = new HashSet<>(size);
+    private void initFrameTrackers() {
+        final Bundle args = getArguments();
+        /*target of this dialog, so nothing outlives it*/
+        final FrameStatsListener listener = args.getBoolean(ARGS_KEY_FRAME_STATS)
+                ? getFrameStatsListener(getActivity(), this, args)
+                : null;
+
+        if (listener != null && FrameTracker.isSupported()) {
+            final Activity activity = getActivity();
+            revealTracker = new FrameTracker(activity, FrameStats.ANIMATION_REVEAL, listener);
+            reverseRevealTracker = new FrameTracker(activity, FrameStats.ANIMATION_REVERSE_REVEAL, listener);
+            digitsTracker = new FrameTracker(activity, FrameStats.ANIMATION_DIGITS, listener);
+            digitsTracker.setLayoutRoot(root);
         } else {
-            digitsSet.clear();
+            revealTracker = null;
+            reverseRevealTracker = null;
+            digitsTracker = null;
         }
-        return digitsSet;
+        controller.setDigitsTracker(digitsTracker);
     }
 
-    private class SelectionAnimatorListener implements DigitAnimator.Callback {
-        @Override
-        public void onAnimationStarted() {
-
-        }
-
-        @Override
-        public void onAnimationFinished() {
-            state.setUi(MaterialTimePicker.this);
+    private void cancelFrameTrackers() {
+        if (revealTracker != null) {
+            revealTracker.cancel();
+            reverseRevealTracker.cancel();
+            digitsTracker.cancel();
         }
     }
 
-    private enum State {
-
-        FIRST_HOUR {
-            @Override
-            void setUi(MaterialTimePicker dialog) {
-                super.setUi(dialog);
-                dialog.setEnabledKeyboardDigits(0, 1, 2);
-            }
-
-            @Override
-            State next(MaterialTimePicker dialog) {
-                return SEC_HOUR;
-            }
-
-            @Override
-            TextView targetView(MaterialTimePicker dialog) {
-                return dialog.firstHour;
-            }
+    private void startAvailabilityLoading() {
+        final Bundle args = getArguments();
 
-            @Override
-            boolean setTimeValue(MaterialTimePicker dialog, int value) {
-                final Time time = dialog.time;
-                boolean changed = time.getFirstHour() != value;
-                time.setFirstHour(value);
+        if (availabilityLoader != null) {
+            availabilityLoader.cancel();
+        }
+        availabilityLoader = new AvailabilityLoader(
+                getAvailabilityProvider(getActivity(), this, args),
+                args.getInt(ARGS_KEY_MIN_MINUTE),
+                args.getInt(ARGS_KEY_MAX_MINUTE),
+                args.getInt(ARGS_KEY_MINUTE_STEP),
+                args.getIntArray(ARGS_KEY_BLOCKED_STARTS),
+                args.getIntArray(ARGS_KEY_BLOCKED_ENDS));
 
-                return changed;
-            }
-        },
+        availabilityPending = true;
+        updateConfirmEnabled();
 
-        SEC_HOUR {
+        availabilityLoader.start(new AvailabilityLoader.Listener() {
             @Override
-            void setUi(MaterialTimePicker dialog) {
-                super.setUi(dialog);
-
-                if (dialog.time.firstHour == 2) {
-                    dialog.setEnabledKeyboardDigits(0, 1, 2, 3);
-                } else {
-                    dialog.setEnabledKeyboardDigits(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+            public void onConstraints(TimeConstraints constraints, boolean complete) {
+                controller.setConstraints(constraints);
+                noFreeTime = constraints.isEmpty();
+                if (complete) {
+                    availabilityPending = false;
+                    availabilityLoader = null;
                 }
+                updateConfirmEnabled();
             }
 
             @Override
-            State next(MaterialTimePicker dialog) {
-                return FIRST_MIN;
-            }
-
-            @Override
-            TextView targetView(MaterialTimePicker dialog) {
-                return dialog.secHour;
-            }
-
-            @Override
-            boolean setTimeValue(MaterialTimePicker dialog, int value) {
-                final Time time = dialog.time;
-                boolean changed = time.getSecHour() != value;
-                time.setSecHour(value);
-
-                return changed;
-            }
-        },
-
-        FIRST_MIN {
-            @Override
-            void setUi(MaterialTimePicker dialog) {
-                super.setUi(dialog);
-                dialog.setEnabledKeyboardDigits(0, 1, 2, 3, 4, 5);
+            public void onFailed() {
+                /*stays pending: time can not be confirmed, dialog can only be cancelled*/
+                availabilityLoader = null;
             }
+        });
+    }
 
-            @Override
-            State next(MaterialTimePicker dialog) {
-                return SEC_MIN;
-            }
+    /*time can not be confirmed or added until availability is known*/
+    private void updateConfirmEnabled() {
+        okButton.setEnabled(!availabilityPending && !noFreeTime);
+    }
 
-            @Override
-            TextView targetView(MaterialTimePicker dialog) {
-                return dialog.firstMin;
-            }
+    @Override
+    public void onDismiss(DialogInterface dialog) {
+        super.onDismiss(dialog);
 
-            @Override
-            boolean setTimeValue(MaterialTimePicker dialog, int value) {
+        /*animations dismissed midway*/
+        cancelFrameTrackers();
 
-                final Time time = dialog.time;
-                boolean changed = time.getFirstMin() != value;
-                time.setFirstMin(value);
+        if (availabilityLoader != null) {
+            availabilityLoader.cancel();
+            availabilityLoader = null;
+        }
 
-                return changed;
-            }
-        },
+        if (getArguments().getBoolean(ARGS_KEY_KEEP_WARM) && getActivity() != null) {
+            ViewPrewarmer.getInstance().prewarm(getActivity(), dialogStyleResId);
+        }
+    }
 
-        SEC_MIN {
-            @Override
-            void setUi(MaterialTimePicker dialog) {
-                super.setUi(dialog);
-                dialog.setEnabledKeyboardDigits(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
-            }
+    @Override
+    public void onCancel(DialogInterface dialog) {
+        if (callbacks != null) {
+            callbacks.onCancelled();
+        }
+        super.onCancel(dialog);
+    }
 
-            @Override
-            State next(MaterialTimePicker dialog) {
-                return FIRST_HOUR;
-            }
+    private void initState(Bundle savedInstanceState) {
 
-            @Override
-            TextView targetView(MaterialTimePicker dialog) {
-                return dialog.secMin;
-            }
+        final Bundle arguments = getArguments();
 
-            @Override
-            boolean setTimeValue(MaterialTimePicker dialog, int value) {
+        format = arguments.containsKey(ARGS_KEY_FORMAT)
+                ? TimeFormat.valueOf(arguments.getString(ARGS_KEY_FORMAT))
+                : TimeFormat.HH_MM;
+        twelveHour = format.hasHours() && isTwelveHour(getActivity(), arguments.getInt(ARGS_KEY_HOUR_FORMAT));
 
-                final Time time = dialog.time;
-                boolean changed = time.getSecMin() != value;
-                time.setSecMin(value);
+        if (savedInstanceState == null) {
+            initProvidedState(arguments);
+        } else {
+            initSavedState(savedInstanceState);
+        }
+        revealStartPoint = arguments.containsKey(ARGS_KEY_TOUCH_POINT)
+                ? arguments.<Point>getParcelable(ARGS_KEY_TOUCH_POINT)
+                : defaultRevealStartPoint();
 
-                return changed;
-            }
-        };
+        batch = arguments.getBoolean(ARGS_KEY_BATCH);
+        if (batch) {
+            final int[] savedBatch = savedInstanceState != null
+                    ? savedInstanceState.getIntArray(SAVE_KEY_BATCH)
+                    : null;
+            batchMinutes = savedBatch != null && savedBatch.length > 0 ? savedBatch : new int[8];
+            batchCount = savedBatch != null ? savedBatch.length : 0;
+        }
 
-        void setUi(MaterialTimePicker dialog) {
-            dialog.firstHour.setText(String.valueOf(dialog.time.getFirstHour()));
-            dialog.secHour.setText(String.valueOf(dialog.time.getSecHour()));
-            dialog.firstMin.setText(String.valueOf(dialog.time.getFirstMin()));
-            dialog.secMin.setText(String.valueOf(dialog.time.getSecMin()));
+        dialogThemeResId = arguments.containsKey(ARGS_KEY_THEME_RES_ID)
+                ? arguments.getInt(ARGS_KEY_THEME_RES_ID)
+                : R.style.DefMaterialDialogStyle;
+    }
 
+    private void initSavedState(Bundle savedInstanceState) {
+        /*seconds are 0 unless format has them*/
+        final Time time = Time.fromSecondOfDay(savedInstanceState.getInt(SAVE_KEY_TIME) * 60
+                + savedInstanceState.getInt(SAVE_KEY_SECONDS));
+        time.setTwelveHour(twelveHour);
+        if (getArguments().containsKey(ARGS_KEY_END_TIME)) {
+            final Time endTime = Time.fromMinuteOfDay(savedInstanceState.getInt(SAVE_KEY_END_TIME));
+            endTime.setTwelveHour(twelveHour);
+            range = new RangeEntry(time, endTime, getArguments().getBoolean(ARGS_KEY_OVERNIGHT),
+                    newConstraints(getArguments()));
+            range.select(savedInstanceState.getInt(SAVE_KEY_STATE));
+        } else {
+            final State state = State.getFromSaveState(savedInstanceState.getInt(SAVE_KEY_STATE));
+            entry = newTimeEntry(time, format, state, getArguments());
         }
+    }
 
-        abstract State next(MaterialTimePicker dialog);
+    private void initProvidedState(Bundle args) {
 
-        abstract TextView targetView(MaterialTimePicker dialog);
+        newDialogInstance = true;
 
-        abstract boolean setTimeValue(MaterialTimePicker dialog, int value);
+        final long timeMillis = args.getLong(ARGS_KEY_TIME);
 
-        public int getSaveState() {
-            return ordinal();
+        final Time time;
+        if (format == TimeFormat.MM_SS) {
+            /*duration, up to an hour*/
+            time = Time.fromSecondOfDay((int) (TimeUnit.MILLISECONDS.toSeconds(timeMillis) % 3600));
+        } else {
+            time = timeMillis == 0 ? new Time() : millisToTime(timeMillis);
+            if (format.hasSeconds() && timeMillis != 0) {
+                time.setSecondOfDay(time.getMinuteOfDay() * 60 + secondOfMinute(timeMillis));
+            }
         }
-
-        public static State getFromSaveState(int state) {
-            return values()[state];
+        time.setTwelveHour(twelveHour);
+        if (args.containsKey(ARGS_KEY_END_TIME)) {
+            final Time endTime = millisToTime(args.getLong(ARGS_KEY_END_TIME));
+            endTime.setTwelveHour(twelveHour);
+            range = new RangeEntry(time, endTime, args.getBoolean(ARGS_KEY_OVERNIGHT), newConstraints(args));
+        } else {
+            entry = newTimeEntry(time, format, format.first(), args);
         }
     }
 
-    static class Time implements Parcelable {
-
-        private int firstHour;
-        private int secHour;
-        private int firstMin;
-        private int secMin;
-
-        public Time() {
+    private static boolean isTwelveHour(Context context, int hourFormat) {
+        switch (hourFormat) {
+            case HOUR_FORMAT_12:
+                return true;
+            case HOUR_FORMAT_LOCALE:
+                return !DateFormat.is24HourFormat(context);
+            default:
+                return false;
         }
+    }
 
-        public Time(int firstHour, int secHour, int firstMin, int secMin) {
-            this.firstHour = firstHour;
-            this.secHour = secHour;
-            this.firstMin = firstMin;
-            this.secMin = secMin;
-        }
+    /*provided time is moved to nearest allowed one*/
+    private static TimeEntry newTimeEntry(Time time, TimeFormat format, State state, Bundle args) {
+        final TimeEntry entry = new TimeEntry(time, format, state);
+        entry.setConstraints(newConstraints(args));
+        entry.clampToAllowed();
+        return entry;
+    }
 
-        protected Time(Parcel in) {
-            firstHour = in.readInt();
-            secHour = in.readInt();
-            firstMin = in.readInt();
-            secMin = in.readInt();
+    private static TimeConstraints newConstraints(Bundle args) {
+        if (!args.containsKey(ARGS_KEY_MINUTE_STEP)) {
+            return TimeConstraints.NONE;
         }
+        final int[] blockedStarts = args.getIntArray(ARGS_KEY_BLOCKED_STARTS);
+        final AvailabilityIndex availability = blockedStarts != null
+                ? AvailabilityIndex.ofBlocked(blockedStarts, args.getIntArray(ARGS_KEY_BLOCKED_ENDS))
+                : null;
 
-        public static final Creator<Time> CREATOR = new Creator<Time>() {
-            @Override
-            public Time createFromParcel(Parcel in) {
-                return new Time(in);
-            }
-
-            @Override
-            public Time[] newArray(int size) {
-                return new Time[size];
-            }
-        };
-
-        public int getFirstHour() {
-            return firstHour;
-        }
+        return TimeConstraints.of(
+                args.getInt(ARGS_KEY_MIN_MINUTE),
+                args.getInt(ARGS_KEY_MAX_MINUTE),
+                args.getInt(ARGS_KEY_MINUTE_STEP),
+                availability);
+    }
 
-        public void setFirstHour(int firstHour) {
-            this.firstHour = firstHour;
-        }
+    interface PrivateCallbacks extends Callbacks, TimeOfDayCallbacks {
 
-        public int getSecHour() {
-            return secHour;
-        }
+        /*dialog mode result goes to onTimeOfDaySelected() instead of onTimeSelected()*/
+        boolean isTimeOfDayTarget();
 
-        public void setSecHour(int secHour) {
-            this.secHour = secHour;
-        }
+        void onTimesSelected(long[] millis);
 
-        public int getFirstMin() {
-            return firstMin;
-        }
+        void onRangeSelected(long startMillis, long endMillis);
+    }
 
-        public void setFirstMin(int firstMin) {
-            this.firstMin = firstMin;
-        }
+    /*activity implements callbacks of dialog mode, and maybe others - as checked by builder*/
+    static class ActivityCallbacks implements PrivateCallbacks {
 
-        public int getSecMin() {
-            return secMin;
-        }
+        private final Callbacks actCallbacks;
+        private final TimeOfDayCallbacks actTimeOfDayCallbacks;
+        private final BatchCallbacks actBatchCallbacks;
+        private final RangeCallbacks actRangeCallbacks;
+        private final boolean batch;
+        private final boolean range;
 
-        public void setSecMin(int secMin) {
-            this.secMin = secMin;
+        public ActivityCallbacks(Activity activity, boolean batch, boolean range) {
+            this.batch = batch;
+            this.range = range;
+            this.actCallbacks = activity instanceof Callbacks ? (Callbacks) activity : null;
+            this.actTimeOfDayCallbacks = activity instanceof TimeOfDayCallbacks ? (TimeOfDayCallbacks) activity : null;
+            this.actBatchCallbacks = activity instanceof BatchCallbacks ? (BatchCallbacks) activity : null;
+            this.actRangeCallbacks = activity instanceof RangeCallbacks ? (RangeCallbacks) activity : null;
         }
 
         @Override
-        public int describeContents() {
-            return 0;
+        public boolean isTimeOfDayTarget() {
+            return actTimeOfDayCallbacks != null;
         }
 
         @Override
-        public void writeToParcel(Parcel dest, int flags) {
-            dest.writeInt(firstHour);
-            dest.writeInt(secHour);
-            dest.writeInt(firstMin);
-            dest.writeInt(secMin);
+        public void onTimeSelected(long millis) {
+            actCallbacks.onTimeSelected(millis);
         }
 
         @Override
-        public String toString() {
-            return "Time{" +
-                    "firstHour=" + firstHour +
-                    ", secHour=" + secHour +
-                    ", firstMin=" + firstMin +
-                    ", secMin=" + secMin +
-                    '}';
+        public void onTimeOfDaySelected(int minuteOfDay, int seconds) {
+            actTimeOfDayCallbacks.onTimeOfDaySelected(minuteOfDay, seconds);
         }
-    }
-
-    interface PrivateCallbacks extends Callbacks {
-    }
 
-    static class ActivityCallbacks implements PrivateCallbacks {
-
-        private final Callbacks actCallbacks;
-
-        public ActivityCallbacks(Callbacks actCallbacks) {
-            this.actCallbacks = actCallbacks;
+        @Override
+        public void onTimesSelected(long[] millis) {
+            actBatchCallbacks.onTimesSelected(millis);
         }
 
         @Override
-        public void onTimeSelected(long millis) {
-            actCallbacks.onTimeSelected(millis);
+        public void onRangeSelected(long startMillis, long endMillis) {
+            actRangeCallbacks.onRangeSelected(startMillis, endMillis);
         }
 
         @Override
         public void onCancelled() {
-            actCallbacks.onCancelled();
+            /*mode callbacks are checked by builder*/
+            if (range) {
+                actRangeCallbacks.onCancelled();
+            } else if (batch) {
+                actBatchCallbacks.onCancelled();
+            } else if (isTimeOfDayTarget()) {
+                /*same interface as result*/
+                actTimeOfDayCallbacks.onCancelled();
+            } else {
+                actCallbacks.onCancelled();
+            }
         }
     }
 
@@ -610,10 +757,21 @@ public class MaterialTimePicker extends DialogFragment {
 
         private final Fragment fragment;
         private final int requestCode;
+        /*null unless fragment implements it and dialog is in single time mode. Batch and range
+        results, cancellation included, go to onActivityResult()*/
+        private final TimeOfDayCallbacks timeOfDayCallbacks;
 
-        public FragmentCallbacks(Fragment fragment, int requestCode) {
+        public FragmentCallbacks(Fragment fragment, int requestCode, boolean batch, boolean range) {
             this.fragment = fragment;
             this.requestCode = requestCode;
+            this.timeOfDayCallbacks = !batch && !range && fragment instanceof TimeOfDayCallbacks
+                    ? (TimeOfDayCallbacks) fragment
+                    : null;
+        }
+
+        @Override
+        public boolean isTimeOfDayTarget() {
+            return timeOfDayCallbacks != null;
         }
 
         @Override
@@ -621,8 +779,31 @@ public class MaterialTimePicker extends DialogFragment {
             fragment.onActivityResult(requestCode, Activity.RESULT_OK, newResultTimeIntent(millis));
         }
 
+        @Override
+        public void onTimeOfDaySelected(int minuteOfDay, int seconds) {
+            timeOfDayCallbacks.onTimeOfDaySelected(minuteOfDay, seconds);
+        }
+
+        @Override
+        public void onTimesSelected(long[] millis) {
+            final Intent intent = new Intent();
+            intent.putExtra(EXTRA_SELECTED_MILLIS_ARRAY, millis);
+            fragment.onActivityResult(requestCode, Activity.RESULT_OK, intent);
+        }
+
+        @Override
+        public void onRangeSelected(long startMillis, long endMillis) {
+            final Intent intent = newResultTimeIntent(startMillis);
+            intent.putExtra(EXTRA_SELECTED_END_MILLIS, endMillis);
+            fragment.onActivityResult(requestCode, Activity.RESULT_OK, intent);
+        }
+
         @Override
         public void onCancelled() {
+            if (timeOfDayCallbacks != null) {
+                timeOfDayCallbacks.onCancelled();
+                return;
+            }
             fragment.onActivityResult(requestCode, Activity.RESULT_CANCELED, new Intent());
         }
     }
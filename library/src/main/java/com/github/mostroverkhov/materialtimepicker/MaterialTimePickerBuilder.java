@@ -24,6 +24,11 @@ import android.support.annotation.StyleRes;
 import android.support.v4.app.Fragment;
 import android.view.View;
 
+import com.github.mostroverkhov.materialtimepicker.core.AvailabilityIndex;
+import com.github.mostroverkhov.materialtimepicker.core.TimeConstraints;
+import com.github.mostroverkhov.materialtimepicker.core.TimeEntry;
+import com.github.mostroverkhov.materialtimepicker.core.TimeFormat;
+
 /**
  * Created by maksym ostroverkhov on 13.02.2016.
  */
@@ -38,6 +43,20 @@ public class MaterialTimePickerBuilder {
     private int requestCode;
     private View clickedOnView;
     private int themeResId;
+    private boolean keepWarm;
+    private boolean batch;
+    private boolean range;
+    private long endMillis;
+    private boolean overnight;
+    private int minMinuteOfDay = TimeEntry.MIN_MINUTE_OF_DAY;
+    private int maxMinuteOfDay = TimeEntry.MAX_MINUTE_OF_DAY;
+    private int minuteStep = 1;
+    private int[] blockedStarts;
+    private int[] blockedEnds;
+    private boolean asyncAvailability;
+    private boolean frameStats;
+    private int hourFormat = MaterialTimePicker.HOUR_FORMAT_24;
+    private TimeFormat format = TimeFormat.HH_MM;
 
     public MaterialTimePickerBuilder withActivity(@NonNull Activity activity) {
         target = TARGET_ACTIVITY;
@@ -62,6 +81,86 @@ public class MaterialTimePickerBuilder {
         return this;
     }
 
+    /*once dismissed, dialog prewarms view hierarchy for next dialog with same theme,
+    see MaterialTimePicker.prewarm()*/
+    public MaterialTimePickerBuilder keepWarm(boolean keepWarm) {
+        this.keepWarm = keepWarm;
+        return this;
+    }
+
+    /*ok button adds entered time to list and starts next entry in same dialog, done button
+    delivers all added times. Activity target should implement MaterialTimePicker.BatchCallbacks*/
+    public MaterialTimePickerBuilder batch(boolean batch) {
+        this.batch = batch;
+        return this;
+    }
+
+    /*start and end times in one dialog: start is time of withTime(), end is endMillis.
+    Unless overnight is allowed, only end after start can be entered. Activity target should
+    implement MaterialTimePicker.RangeCallbacks*/
+    public MaterialTimePickerBuilder range(long endMillis, boolean allowOvernight) {
+        this.range = true;
+        this.endMillis = endMillis;
+        this.overnight = allowOvernight;
+        return this;
+    }
+
+    /*only times within [minMinuteOfDay, maxMinuteOfDay] can be entered, e.g. opening hours*/
+    public MaterialTimePickerBuilder withBounds(int minMinuteOfDay, int maxMinuteOfDay) {
+        this.minMinuteOfDay = minMinuteOfDay;
+        this.maxMinuteOfDay = maxMinuteOfDay;
+        return this;
+    }
+
+    /*only multiples of minuteStep minutes from midnight can be entered, e.g. 15 for quarters*/
+    public MaterialTimePickerBuilder withMinuteStep(int minuteStep) {
+        this.minuteStep = minuteStep;
+        return this;
+    }
+
+    /**
+     * Times within blocked intervals can not be entered: keys which can not lead to free time
+     * are disabled. Index of free minutes is built once per dialog, thousands of intervals are fine
+     *
+     * @param starts interval starts, minute of day, inclusive
+     * @param ends interval ends, minute of day, exclusive. End before start wraps midnight
+     */
+    public MaterialTimePickerBuilder withBlockedIntervals(@NonNull int[] starts, @NonNull int[] ends) {
+        this.blockedStarts = starts;
+        this.blockedEnds = ends;
+        return this;
+    }
+
+    /*blocked intervals are also loaded in background from AvailabilityProvider, implemented by
+    activity or target fragment*/
+    public MaterialTimePickerBuilder withAvailabilityProvider() {
+        this.asyncAvailability = true;
+        return this;
+    }
+
+    /*frame timing of dialog animations is reported to MaterialTimePicker.FrameStatsListener,
+    implemented by activity or target fragment. Measured with Choreographer frame callbacks
+    (API 16+), delivered on main thread once per animation*/
+    public MaterialTimePickerBuilder withFrameStats() {
+        this.frameStats = true;
+        return this;
+    }
+
+    /*MaterialTimePicker.HOUR_FORMAT_24 (default), HOUR_FORMAT_12 for 12 hour clock with AM/PM
+    toggle, or HOUR_FORMAT_LOCALE for format set on device*/
+    public MaterialTimePickerBuilder withHourFormat(int hourFormat) {
+        this.hourFormat = hourFormat;
+        return this;
+    }
+
+    /*HH_MM (default), HH_MM_SS with seconds, or MM_SS for durations: time of withTime() and
+    result are then duration millis, up to an hour. Batch and range modes are HH_MM only,
+    MM_SS can not be combined with bounds, minute step or blocked intervals*/
+    public MaterialTimePickerBuilder withFormat(@NonNull TimeFormat format) {
+        this.format = format;
+        return this;
+    }
+
     public MaterialTimePickerBuilder revealFromView(@NonNull View view) {
         clickedOnView = view;
         return this;
@@ -86,6 +185,24 @@ public class MaterialTimePickerBuilder {
             args.putInt(MaterialTimePicker.ARGS_KEY_THEME_RES_ID, themeResId);
         }
 
+        args.putBoolean(MaterialTimePicker.ARGS_KEY_KEEP_WARM, keepWarm);
+        args.putBoolean(MaterialTimePicker.ARGS_KEY_BATCH, batch);
+        args.putInt(MaterialTimePicker.ARGS_KEY_MIN_MINUTE, minMinuteOfDay);
+        args.putInt(MaterialTimePicker.ARGS_KEY_MAX_MINUTE, maxMinuteOfDay);
+        args.putInt(MaterialTimePicker.ARGS_KEY_MINUTE_STEP, minuteStep);
+        if (blockedStarts != null) {
+            args.putIntArray(MaterialTimePicker.ARGS_KEY_BLOCKED_STARTS, blockedStarts);
+            args.putIntArray(MaterialTimePicker.ARGS_KEY_BLOCKED_ENDS, blockedEnds);
+        }
+        args.putBoolean(MaterialTimePicker.ARGS_KEY_ASYNC_AVAILABILITY, asyncAvailability);
+        args.putBoolean(MaterialTimePicker.ARGS_KEY_FRAME_STATS, frameStats);
+        args.putInt(MaterialTimePicker.ARGS_KEY_HOUR_FORMAT, hourFormat);
+        args.putString(MaterialTimePicker.ARGS_KEY_FORMAT, format.name());
+        if (range) {
+            args.putLong(MaterialTimePicker.ARGS_KEY_END_TIME, endMillis);
+            args.putBoolean(MaterialTimePicker.ARGS_KEY_OVERNIGHT, overnight);
+        }
+
         if (target.equals(TARGET_FRAGMENT)) {
             args.putInt(MaterialTimePicker.ARGS_KEY_REQUEST_CODE, requestCode);
             dialogFragment.setTargetFragment((Fragment) targetInstance, requestCode);
@@ -104,8 +221,57 @@ public class MaterialTimePickerBuilder {
             throw new IllegalArgumentException("provided target should not be null");
         }
 
-        if (target.equals(TARGET_ACTIVITY) && !(targetInstance instanceof MaterialTimePicker.Callbacks)) {
-            throw new IllegalArgumentException("provided activity should implement MaterialPickerDialog.Callbacks");
+        /*throws if no time satisfies constraints*/
+        final TimeConstraints constraints = TimeConstraints.of(minMinuteOfDay, maxMinuteOfDay, minuteStep,
+                blockedStarts != null
+                        ? AvailabilityIndex.ofBlocked(blockedStarts, blockedEnds)
+                        : null);
+        /*end after start needs two allowed times*/
+        if (range && !overnight && constraints.getFirstAllowed() == constraints.getLastAllowed()) {
+            throw new IllegalArgumentException("range needs at least two allowed times, or overnight ranges allowed");
+        }
+
+        if (asyncAvailability && !(targetInstance instanceof AvailabilityProvider)) {
+            throw new IllegalArgumentException("provided target should implement AvailabilityProvider");
+        }
+        if (frameStats && !(targetInstance instanceof MaterialTimePicker.FrameStatsListener)) {
+            throw new IllegalArgumentException("provided target should implement MaterialTimePicker.FrameStatsListener");
+        }
+        if (hourFormat != MaterialTimePicker.HOUR_FORMAT_24
+                && hourFormat != MaterialTimePicker.HOUR_FORMAT_12
+                && hourFormat != MaterialTimePicker.HOUR_FORMAT_LOCALE) {
+            throw new IllegalArgumentException("Unknown hour format: " + hourFormat);
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("format should not be null");
+        }
+        if ((batch || range) && format != TimeFormat.HH_MM) {
+            throw new IllegalArgumentException("batch and range modes support HH_MM format only");
+        }
+        /*constraints are minutes of day, durations are not*/
+        if (format == TimeFormat.MM_SS && (minMinuteOfDay != TimeEntry.MIN_MINUTE_OF_DAY
+                || maxMinuteOfDay != TimeEntry.MAX_MINUTE_OF_DAY
+                || minuteStep != 1
+                || blockedStarts != null
+                || asyncAvailability)) {
+            throw new IllegalArgumentException("MM_SS format does not support bounds, minute step " +
+                    "or blocked intervals");
+        }
+        if (batch && range) {
+            throw new IllegalArgumentException("batch and range modes can not be combined");
+        }
+        if (target.equals(TARGET_ACTIVITY)) {
+            if (range && !(targetInstance instanceof MaterialTimePicker.RangeCallbacks)) {
+                throw new IllegalArgumentException("provided activity should implement MaterialPickerDialog.RangeCallbacks");
+            }
+            if (batch && !(targetInstance instanceof MaterialTimePicker.BatchCallbacks)) {
+                throw new IllegalArgumentException("provided activity should implement MaterialPickerDialog.BatchCallbacks");
+            }
+            if (!batch && !range && !(targetInstance instanceof MaterialTimePicker.Callbacks)
+                    && !(targetInstance instanceof MaterialTimePicker.TimeOfDayCallbacks)) {
+                throw new IllegalArgumentException("provided activity should implement MaterialPickerDialog.Callbacks " +
+                        "or MaterialPickerDialog.TimeOfDayCallbacks");
+            }
         }
     }
 }
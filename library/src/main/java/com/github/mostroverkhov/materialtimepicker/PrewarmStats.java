@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+/**
+ * Snapshot of view hierarchy prewarming counters, see {@link MaterialTimePicker#prewarm}.
+ * Each dialog creation is counted exactly once: as hit, or as one of misses
+ */
+public class PrewarmStats {
+
+    private final int prewarmed;
+    private final int hits;
+    private final int missesNotPrewarmed;
+    private final int missesInProgress;
+    private final int missesStale;
+
+    PrewarmStats(int prewarmed,
+                 int hits,
+                 int missesNotPrewarmed,
+                 int missesInProgress,
+                 int missesStale) {
+        this.prewarmed = prewarmed;
+        this.hits = hits;
+        this.missesNotPrewarmed = missesNotPrewarmed;
+        this.missesInProgress = missesInProgress;
+        this.missesStale = missesStale;
+    }
+
+    /*view hierarchies inflated in background*/
+    public int getPrewarmed() {
+        return prewarmed;
+    }
+
+    /*dialogs created with prewarmed view hierarchy*/
+    public int getHits() {
+        return hits;
+    }
+
+    /*dialogs inflated on main thread*/
+    public int getMisses() {
+        return missesNotPrewarmed + missesInProgress + missesStale;
+    }
+
+    /*no prewarm was requested for dialog theme*/
+    public int getMissesNotPrewarmed() {
+        return missesNotPrewarmed;
+    }
+
+    /*prewarm was requested, but background inflation was not finished yet*/
+    public int getMissesInProgress() {
+        return missesInProgress;
+    }
+
+    /*prewarmed view hierarchy was discarded because configuration changed since inflation, or
+    it was prewarmed by activity of another class*/
+    public int getMissesStale() {
+        return missesStale;
+    }
+
+    @Override
+    public String toString() {
+        return "PrewarmStats{" +
+                "prewarmed=" + prewarmed +
+                ", hits=" + hits +
+                ", missesNotPrewarmed=" + missesNotPrewarmed +
+                ", missesInProgress=" + missesInProgress +
+                ", missesStale=" + missesStale +
+                '}';
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.util.AttributeSet;
+import android.view.View;
+
+import io.codetail.widget.RevealFrameLayout;
+
+/**
+ * Reveal container for pre-Lollipop devices. Instead of clipping and redrawing live child
+ * hierarchy on every frame, child is rasterized once into bitmap, and reveal only draws circle
+ * filled with that bitmap. Live child is drawn again when reveal ends. Bitmap is reused by
+ * following reveals of same size, and released when layout is detached from window
+ */
+public class SnapshotRevealLayout extends RevealFrameLayout {
+
+    private final Paint snapshotPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final Canvas snapshotCanvas = new Canvas();
+    private final RevealUpdateListener updateListener = new RevealUpdateListener();
+    private final RevealEndListener endListener = new RevealEndListener();
+
+    private Bitmap snapshot;
+    private View revealedChild;
+    private float centerX;
+    private float centerY;
+    private float radius;
+
+    public SnapshotRevealLayout(Context context) {
+        this(context, null);
+    }
+
+    public SnapshotRevealLayout(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public SnapshotRevealLayout(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+    }
+
+    /**
+     * @param child laid out direct child of this layout
+     * @param cx reveal center, relative to child
+     * @param cy reveal center, relative to child
+     * @return not started reveal animator. Child is snapshotted at the moment of this call
+     */
+    public Animator createReveal(View child, int cx, int cy, float fromRadius, float toRadius) {
+        if (child.getParent() != this) {
+            throw new IllegalArgumentException("Child is expected to be direct child of this layout");
+        }
+        final int width = child.getWidth();
+        final int height = child.getHeight();
+        if (width == 0 || height == 0) {
+            throw new IllegalArgumentException("Child is expected to be laid out");
+        }
+
+        takeSnapshot(child, width, height);
+
+        revealedChild = child;
+        centerX = cx;
+        centerY = cy;
+        radius = fromRadius;
+
+        final ValueAnimator animator = ValueAnimator.ofFloat(fromRadius, toRadius);
+        animator.addUpdateListener(updateListener);
+        /*first, so live child is back before other listeners are notified*/
+        animator.addListener(endListener);
+        return animator;
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (child != revealedChild) {
+            return super.drawChild(canvas, child, drawingTime);
+        }
+        if (radius > 0) {
+            final int saveCount = canvas.save();
+            canvas.translate(child.getLeft(), child.getTop());
+            canvas.drawCircle(centerX, centerY, radius, snapshotPaint);
+            canvas.restoreToCount(saveCount);
+        }
+        return false;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        /*reveal which may still run draws live child*/
+        revealedChild = null;
+        releaseSnapshot();
+    }
+
+    private void takeSnapshot(View child, int width, int height) {
+        if (snapshot == null || snapshot.getWidth() != width || snapshot.getHeight() != height) {
+            releaseSnapshot();
+            snapshot = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            snapshotPaint.setShader(new BitmapShader(snapshot, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+        } else {
+            snapshot.eraseColor(0);
+        }
+        snapshotCanvas.setBitmap(snapshot);
+        child.draw(snapshotCanvas);
+        snapshotCanvas.setBitmap(null);
+    }
+
+    private void releaseSnapshot() {
+        if (snapshot != null) {
+            snapshotPaint.setShader(null);
+            snapshot.recycle();
+            snapshot = null;
+        }
+    }
+
+    private void endReveal() {
+        revealedChild = null;
+        invalidate();
+    }
+
+    private class RevealUpdateListener implements ValueAnimator.AnimatorUpdateListener {
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            radius = (Float) animation.getAnimatedValue();
+            invalidate();
+        }
+    }
+
+    private class RevealEndListener extends AnimatorListenerAdapter {
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            endReveal();
+        }
+    }
+}
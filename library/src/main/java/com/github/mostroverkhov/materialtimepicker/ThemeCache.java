@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.util.SparseArray;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache of resolved picker styles, per activity: themed context per style resource id, and
+ * attributes resolved by picker views inflated with it - dimensions, colors of state lists,
+ * drawables. Picker opened again in same activity with same style skips theme creation and
+ * attribute resolution. Themed contexts wrap activity, so views keep activity theme, layout
+ * inflater factory and activity as context. Contexts of activity are dropped when it is
+ * destroyed, all of them on configuration change and low memory. Other contexts are wrapped
+ * with no caching. Themed contexts are taken on main thread, views may store resolved
+ * attributes from any thread
+ */
+class ThemeCache {
+
+    private static ThemeCache instance;
+
+    /*contexts of activity are keyed by style resource id*/
+    private final Map<Activity, SparseArray<ThemedContext>> contexts = new HashMap<>();
+    private boolean observesLifecycle;
+
+    static ThemeCache getInstance() {
+        if (instance == null) {
+            instance = new ThemeCache();
+        }
+        return instance;
+    }
+
+    /*context with style applied to theme of given one, cached if it is activity*/
+    Context themedContext(Context context, int styleResId) {
+        if (!(context instanceof Activity)) {
+            return new ThemedContext(context, styleResId);
+        }
+        final Activity activity = (Activity) context;
+        observeLifecycle(activity.getApplication());
+        SparseArray<ThemedContext> activityContexts = contexts.get(activity);
+        if (activityContexts == null) {
+            activityContexts = new SparseArray<>();
+            contexts.put(activity, activityContexts);
+        }
+        ThemedContext themed = activityContexts.get(styleResId);
+        if (themed == null) {
+            themed = new ThemedContext(activity, styleResId);
+            activityContexts.put(styleResId, themed);
+        }
+        return themed;
+    }
+
+    void clear() {
+        contexts.clear();
+    }
+
+    /*attributes stored by view with id inflated with context, null if there are none or context
+    is not cached one. Keyed by id, as each picker view is defined by single library layout*/
+    static <T> T getViewStyle(Context context, int viewId, Class<T> type) {
+        if (!(context instanceof ThemedContext) || viewId == View.NO_ID) {
+            return null;
+        }
+        final Object style = ((ThemedContext) context).getViewStyle(viewId);
+        return type.isInstance(style) ? type.cast(style) : null;
+    }
+
+    /*no op unless context is cached one*/
+    static void putViewStyle(Context context, int viewId, Object style) {
+        if (context instanceof ThemedContext && viewId != View.NO_ID) {
+            ((ThemedContext) context).putViewStyle(viewId, style);
+        }
+    }
+
+    private void observeLifecycle(Application application) {
+        if (observesLifecycle) {
+            return;
+        }
+        observesLifecycle = true;
+        application.registerComponentCallbacks(new ComponentCallbacks() {
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+                /*resolved dimensions and resources depend on configuration*/
+                clear();
+            }
+
+            @Override
+            public void onLowMemory() {
+                clear();
+            }
+        });
+        application.registerActivityLifecycleCallbacks(new Application.ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityDestroyed(Activity activity) {
+                contexts.remove(activity);
+            }
+
+            @Override
+            public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            }
+
+            @Override
+            public void onActivityStarted(Activity activity) {
+            }
+
+            @Override
+            public void onActivityResumed(Activity activity) {
+            }
+
+            @Override
+            public void onActivityPaused(Activity activity) {
+            }
+
+            @Override
+            public void onActivityStopped(Activity activity) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            }
+        });
+    }
+
+    private static class ThemedContext extends ContextThemeWrapper {
+
+        /*keyed by view id*/
+        private final SparseArray<Object> viewStyles = new SparseArray<>();
+
+        ThemedContext(Context base, int styleResId) {
+            super(base, styleResId);
+        }
+
+        synchronized Object getViewStyle(int viewId) {
+            return viewStyles.get(viewId);
+        }
+
+        synchronized void putViewStyle(int viewId, Object style) {
+            viewStyles.put(viewId, style);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+import com.github.mostroverkhov.materialtimepicker.core.State;
+import com.github.mostroverkhov.materialtimepicker.core.TimeEntry;
+import com.github.mostroverkhov.materialtimepicker.core.TimeFormat;
+
+/**
+ * Time picker view for recycled list rows. Complete row state - time, selected position and entry
+ * state - is single int time value, so adapter keeps one int per row: row is shown with
+ * {@link #bind(int)} and its state is read back with {@link #unbind()} when view is recycled.
+ * Neither allocates, and both end running animations at once. Instance state is not saved,
+ * it is owned by adapter. Cells enter HH:MM on 24 hour clock: time value holds neither seconds
+ * nor half of day, so unlike {@link TimePickerView} cell has no format or clock setters
+ */
+public class TimePickerCell extends AbsTimePickerView {
+
+    private static final int POSITION_BITS = 8;
+    private static final int POSITION_MASK = (1 << POSITION_BITS) - 1;
+
+    private boolean bound;
+
+    public TimePickerCell(Context context) {
+        this(context, null);
+    }
+
+    public TimePickerCell(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        setSaveEnabled(false);
+    }
+
+    /*time value of minute of day, with first hour selected*/
+    public static int timeValue(int minuteOfDay) {
+        return timeValue(minuteOfDay, State.FIRST_HOUR.getPosition());
+    }
+
+    public static int timeValue(int minuteOfDay, int position) {
+        if (minuteOfDay < 0 || minuteOfDay >= 24 * 60) {
+            throw new IllegalArgumentException("Minute of day is out of range: " + minuteOfDay);
+        }
+        if (position < 0 || position >= TimeFormat.HH_MM.getPositions()) {
+            throw new IllegalArgumentException("Position is out of range: " + position);
+        }
+        return minuteOfDay << POSITION_BITS | position;
+    }
+
+    public static int minuteOfDay(int timeValue) {
+        return timeValue >>> POSITION_BITS;
+    }
+
+    public static int position(int timeValue) {
+        return timeValue & POSITION_MASK;
+    }
+
+    /*shows row state w/o animation*/
+    public void bind(int timeValue) {
+        getController().bind(minuteOfDay(timeValue), State.atPosition(position(timeValue)));
+        bound = true;
+    }
+
+    /*ends animations and returns row state, to be stored by adapter*/
+    public int unbind() {
+        final int timeValue = getTimeValue();
+        /*settles display, so next bind starts from idle state*/
+        getController().bind(minuteOfDay(timeValue), State.atPosition(position(timeValue)));
+        bound = false;
+        return timeValue;
+    }
+
+    public boolean isBound() {
+        return bound;
+    }
+
+    public int getTimeValue() {
+        final TimeEntry entry = getController().getEntry();
+        return entry.getTime().getMinuteOfDay() << POSITION_BITS | entry.getState().getPosition();
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.text.TextPaint;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.github.mostroverkhov.materialtimepicker.core.RangeEntry;
+import com.github.mostroverkhov.materialtimepicker.core.State;
+import com.github.mostroverkhov.materialtimepicker.core.Time;
+import com.github.mostroverkhov.materialtimepicker.core.TimeConstraints;
+import com.github.mostroverkhov.materialtimepicker.core.TimeEntry;
+import com.github.mostroverkhov.materialtimepicker.core.TimeFormat;
+import com.github.mostroverkhov.materialtimepicker.core.Transition;
+
+import java.text.DateFormatSymbols;
+
+/**
+ * Drives digit display and keypad from time entry state machine: keystrokes, position
+ * selection, animations and enabled keys. Displayed positions are those of entry's format.
+ * Shared by dialog and inline TimePickerView.
+ * For range entry, display shows time of range's current position, and is switched to other
+ * time when entry moves to it. In 12 hour mode AM/PM view toggles half of day
+ */
+final class TimePickerController {
+
+    private final DigitDisplayView digitsView;
+    private final KeypadView keypadView;
+    private final DigitAnimator animator;
+    /*shown entry, one of range entries in range mode*/
+    private TimeEntry entry;
+    /*null unless in range mode*/
+    private final RangeEntry range;
+    /*new values of positions changed by keystroke, indexed by position*/
+    private final int[] changedValues = new int[DigitDisplayView.MAX_POSITIONS];
+
+    /*null unless in 12 hour mode*/
+    private TextView amPmView;
+    private String[] amPmStrings;
+    /*index of shown AM/PM string, -1 if none is shown yet*/
+    private int shownAmPm = -1;
+
+    /*null if frame stats are not reported*/
+    private FrameTracker digitsTracker;
+    private Callback callback;
+
+    interface Callback {
+
+        /*called on main thread after each keystroke which changed entered time*/
+        void onTimeChanged(TimeEntry entry);
+
+        /*range mode: display was switched to other time of range*/
+        void onEntrySwitched(TimeEntry entry);
+    }
+
+    public TimePickerController(DigitDisplayView digitsView, KeypadView keypadView, TimeEntry entry) {
+        this(digitsView, keypadView, entry, null);
+    }
+
+    public TimePickerController(DigitDisplayView digitsView, KeypadView keypadView, RangeEntry range) {
+        this(digitsView, keypadView, range.getCurrent(), range);
+    }
+
+    private TimePickerController(DigitDisplayView digitsView,
+                                 KeypadView keypadView,
+                                 TimeEntry entry,
+                                 RangeEntry range) {
+        this.digitsView = digitsView;
+        this.keypadView = keypadView;
+        this.entry = entry;
+        this.range = range;
+        digitsView.setPositions(entry.getFormat().getPositions());
+        this.animator = new DigitAnimator(
+                digitsView,
+                entry.getPosition(),
+                new SelectionAnimatorListener());
+
+        setUiListeners();
+        updateUi();
+    }
+
+    /*shown entry*/
+    public TimeEntry getEntry() {
+        return entry;
+    }
+
+    /*selects range position, switching shown time if needed. Range mode only*/
+    public void selectRangePosition(int position) {
+        range.select(position);
+        if (!showRangeCurrent()) {
+            keypadView.setEnabledDigits(entry.getEnabledDigits());
+            animator.animateTo(entry.getPosition());
+        }
+    }
+
+    /*changes displayed positions, first one is selected. Not for range mode*/
+    public void setFormat(TimeFormat format) {
+        entry.setFormat(format);
+        digitsView.setPositions(format.getPositions());
+        animator.jumpTo(entry.getPosition());
+        updateUi();
+    }
+
+    public void setCallback(Callback callback) {
+        this.callback = callback;
+    }
+
+    public void setDigitsTracker(FrameTracker digitsTracker) {
+        this.digitsTracker = digitsTracker;
+    }
+
+    /*shows AM/PM of entered time, click toggles it. 12 hour mode only, null hides shown view*/
+    public void setAmPmView(TextView amPmView) {
+        if (this.amPmView != null) {
+            this.amPmView.setOnClickListener(null);
+            this.amPmView.setVisibility(View.GONE);
+        }
+        this.amPmView = amPmView;
+        if (amPmView == null) {
+            return;
+        }
+        amPmStrings = DateFormatSymbols.getInstance().getAmPmStrings();
+        shownAmPm = -1;
+        fixWidth(amPmView, amPmStrings);
+
+        amPmView.setVisibility(View.VISIBLE);
+        amPmView.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                final boolean pm = !entry.isPm();
+                final boolean changed = range != null ? range.setPm(pm) : entry.setPm(pm);
+
+                if (animator.isAnimating()) {
+                    updateAmPm();
+                    keypadView.setEnabledDigits(entry.getEnabledDigits());
+                } else {
+                    updateUi();
+                }
+                if (changed && callback != null) {
+                    callback.onTimeChanged(entry);
+                }
+            }
+        });
+        updateAmPm();
+    }
+
+    /*replaces constraints while entry is in progress: keys are updated at once, time moved to
+    allowed one is shown once running animations end*/
+    public void setConstraints(TimeConstraints constraints) {
+        if (range != null) {
+            range.setConstraints(constraints);
+        } else {
+            entry.setConstraints(constraints);
+            entry.clampToAllowed();
+        }
+        if (animator.isAnimating()) {
+            keypadView.setEnabledDigits(entry.getEnabledDigits());
+        } else {
+            updateUi();
+        }
+    }
+
+    /*replaces entered time and state at once: running animations are ended, nothing is allocated.
+    Time not allowed by entry constraints is moved to nearest allowed one. Seconds are 0*/
+    public void bind(int minuteOfDay, State state) {
+        bindSecondOfDay(minuteOfDay * 60, state);
+    }
+
+    public void bindSecondOfDay(int secondOfDay, State state) {
+        entry.getTime().setSecondOfDay(secondOfDay);
+        entry.select(state);
+        entry.clampToAllowed();
+        animator.jumpTo(entry.getPosition());
+        updateUi();
+    }
+
+    public void updateUi() {
+        final Time time = entry.getTime();
+        final TimeFormat format = entry.getFormat();
+
+        for (int pos = 0; pos < format.getPositions(); pos++) {
+            digitsView.setDigit(pos, format.atPosition(pos).getValue(time));
+        }
+
+        keypadView.setEnabledDigits(entry.getEnabledDigits());
+        updateAmPm();
+    }
+
+    private void updateAmPm() {
+        if (amPmView != null) {
+            final boolean pm = entry.isPm();
+            final int amPm = pm ? 1 : 0;
+            if (shownAmPm != amPm) {
+                shownAmPm = amPm;
+                amPmView.setText(amPmStrings[amPm]);
+            }
+            amPmView.setEnabled(entry.isPmEnabled(!pm));
+        }
+    }
+
+    /*width of widest text is set once, so changing text of wrap_content view does not request
+    layout of whole dialog on every toggle*/
+    private static void fixWidth(TextView view, String[] texts) {
+        final TextPaint paint = view.getPaint();
+        float textWidth = 0;
+        for (String text : texts) {
+            textWidth = Math.max(textWidth, paint.measureText(text));
+        }
+        final ViewGroup.LayoutParams params = view.getLayoutParams();
+        params.width = (int) Math.ceil(textWidth)
+                + view.getCompoundPaddingLeft()
+                + view.getCompoundPaddingRight();
+        view.setLayoutParams(params);
+    }
+
+    private void setUiListeners() {
+
+        digitsView.setOnPositionClickListener(new DigitDisplayView.OnPositionClickListener() {
+            @Override
+            public void onPositionClick(int position) {
+
+                if (range != null) {
+                    selectRangePosition(range.isEndCurrent() ? RangeEntry.TIME_POSITIONS + position : position);
+                } else {
+                    entry.select(entry.getFormat().atPosition(position));
+                    keypadView.setEnabledDigits(entry.getEnabledDigits());
+                    animator.animateTo(position);
+                }
+            }
+        });
+
+        keypadView.setOnDigitClickListener(new KeypadView.OnDigitClickListener() {
+            @Override
+            public void onDigitClick(int value) {
+
+                /*keystrokes are applied at once, even while previous ones are still animated.
+                Transition has changed positions, corrections included: digit of left position
+                rolls with selection move, others (corrections, 12 hour single digit hour) roll
+                in same frame. Unchanged digits and keys are not touched*/
+                final int from = entry.getPosition();
+                final int transition = range != null ? range.applyDigit(value) : entry.applyDigit(value);
+                final TimeFormat format = entry.getFormat();
+                final Time time = entry.getTime();
+
+                animator.animateTo(Transition.getNextPosition(transition),
+                        Transition.isChanged(transition, from)
+                                ? format.atPosition(from).getValue(time)
+                                : DigitAnimator.NO_VALUE);
+
+                final int changed = Transition.getChangedPositions(transition);
+                final int others = changed & ~(1 << from);
+                if (others != 0) {
+                    for (int pos = 0; pos < format.getPositions(); pos++) {
+                        changedValues[pos] = format.atPosition(pos).getValue(time);
+                    }
+                    animator.animateValues(others, changedValues);
+                }
+
+                if (range != null) {
+                    showRangeCurrent();
+                }
+                keypadView.setEnabledDigits(Transition.getEnabledDigits(transition));
+
+                if (changed != 0 && callback != null) {
+                    callback.onTimeChanged(entry);
+                }
+            }
+        });
+    }
+
+    /*returns true if shown entry was switched*/
+    private boolean showRangeCurrent() {
+        if (range.getCurrent() == entry) {
+            return false;
+        }
+        entry = range.getCurrent();
+        animator.jumpTo(entry.getPosition());
+        updateUi();
+        if (callback != null) {
+            callback.onEntrySwitched(entry);
+        }
+        return true;
+    }
+
+    private class SelectionAnimatorListener implements DigitAnimator.Callback {
+        @Override
+        public void onAnimationStarted() {
+            if (digitsTracker != null) {
+                digitsTracker.start();
+            }
+        }
+
+        @Override
+        public void onAnimationFinished() {
+            /*reconciles display with entry, e.g. after time was changed while animating. Only
+            differing digits, keys and AM/PM are redrawn*/
+            updateUi();
+            if (digitsTracker != null) {
+                digitsTracker.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.widget.TextView;
+
+import com.github.mostroverkhov.materialtimepicker.core.TimeEntry;
+import com.github.mostroverkhov.materialtimepicker.core.TimeFormat;
+
+/**
+ * Time picker digits and keypad as regular view, for use in layouts without dialog. Enters time
+ * in any {@link TimeFormat}, on 12 or 24 hour clock. See {@link AbsTimePickerView}
+ */
+public class TimePickerView extends AbsTimePickerView {
+
+    public TimePickerView(Context context) {
+        this(context, null);
+    }
+
+    public TimePickerView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    /*HH:MM by default, HH:MM:SS or MM:SS durations. Time is kept, first digit is selected*/
+    public void setFormat(TimeFormat format) {
+        getController().setFormat(format);
+    }
+
+    /*12 hour clock with AM/PM toggle, 24 hour clock by default. Time is kept*/
+    public void setTwelveHour(boolean twelveHour) {
+        final TimePickerController controller = getController();
+        final TimeEntry entry = controller.getEntry();
+        entry.getTime().setTwelveHour(twelveHour);
+        controller.setAmPmView(twelveHour ? (TextView) findViewById(R.id.material_dialog_am_pm) : null);
+        controller.bindSecondOfDay(entry.getTime().getSecondOfDay(), entry.getState());
+    }
+}
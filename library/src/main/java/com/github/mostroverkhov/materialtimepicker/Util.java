@@ -16,11 +16,15 @@
 
 package com.github.mostroverkhov.materialtimepicker;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.annotation.TargetApi;
 import android.app.Activity;
 import android.app.Dialog;
 import android.content.Context;
 import android.graphics.Point;
 import android.graphics.Rect;
+import android.os.Build;
 import android.os.Bundle;
 import android.support.annotation.DimenRes;
 import android.support.v4.app.Fragment;
@@ -28,48 +32,51 @@ import android.util.Pair;
 import android.view.Display;
 import android.view.LayoutInflater;
 import android.view.View;
-import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.view.Window;
 import android.view.WindowManager;
 import android.view.animation.AccelerateDecelerateInterpolator;
-import android.widget.GridLayout;
-import android.widget.TextView;
 
-import java.util.Calendar;
+import com.github.mostroverkhov.materialtimepicker.core.RevealGeometry;
 
 import io.codetail.animation.SupportAnimator;
 import io.codetail.animation.ViewAnimationUtils;
 
+import static com.github.mostroverkhov.materialtimepicker.MaterialTimePicker.ARGS_KEY_BATCH;
+import static com.github.mostroverkhov.materialtimepicker.MaterialTimePicker.ARGS_KEY_END_TIME;
 import static com.github.mostroverkhov.materialtimepicker.MaterialTimePicker.ARGS_KEY_REQUEST_CODE;
 import static com.github.mostroverkhov.materialtimepicker.MaterialTimePicker.ARGS_KEY_TARGET;
 import static com.github.mostroverkhov.materialtimepicker.MaterialTimePicker.ActivityCallbacks;
-import static com.github.mostroverkhov.materialtimepicker.MaterialTimePicker.Callbacks;
 import static com.github.mostroverkhov.materialtimepicker.MaterialTimePicker.FragmentCallbacks;
 import static com.github.mostroverkhov.materialtimepicker.MaterialTimePicker.PrivateCallbacks;
-import static com.github.mostroverkhov.materialtimepicker.MaterialTimePicker.Time;
 
 /**
  * Created by maksym ostroverkhov on 13.02.2016.
  */
 public class Util {
 
-    static void circularReveal(final View view, Point absStartPoint) {
-        circularReveal(view, absStartPoint, false, null);
+    private static final int REVEAL_DURATION = 300;
+
+    static void circularReveal(final View view, Point absStartPoint, FrameTracker tracker) {
+        circularReveal(view, absStartPoint, false, null, tracker);
     }
 
     static void reverseCircularReveal(final View view,
                                       Point absStartPoint,
-                                      final SupportAnimator.AnimatorListener listener) {
+                                      final SupportAnimator.AnimatorListener listener,
+                                      FrameTracker tracker) {
 
-        circularReveal(view, absStartPoint, true, listener);
+        circularReveal(view, absStartPoint, true, listener, tracker);
     }
 
+    /*tracker is optional, it is started and stopped with reveal animation*/
     static void circularReveal(final View view,
                                final Point absStartPoint,
                                final boolean reverse,
-                               final SupportAnimator.AnimatorListener listener) {
+                               final SupportAnimator.AnimatorListener listener,
+                               final FrameTracker tracker) {
 
-        view.post(new Runnable() {
+        runWhenLaidOut(view, new Runnable() {
             @Override
             public void run() {
 
@@ -87,99 +94,161 @@ public class Util {
                 float fromRadius = reverse ? radius : 0;
                 float toRadius = reverse ? 0 : radius;
 
-                final SupportAnimator animator = ViewAnimationUtils.createCircularReveal(view,
-                        cx,
-                        cy,
-                        fromRadius,
-                        toRadius);
-
-                animator.setInterpolator(new AccelerateDecelerateInterpolator());
-                animator.setDuration(300);
-                if (listener != null) {
-                    animator.addListener(listener);
+                /*first, so frames are reported before listener dismisses dialog*/
+                final SupportAnimator.AnimatorListener trackingListener = tracker != null
+                        ? new TrackingAnimatorListener(tracker)
+                        : null;
+
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                    PlatformReveal.start(view, cx, cy, fromRadius, toRadius, trackingListener, listener);
+                } else if (view.getParent() instanceof SnapshotRevealLayout) {
+                    final Animator animator = ((SnapshotRevealLayout) view.getParent())
+                            .createReveal(view, cx, cy, fromRadius, toRadius);
+                    startAdapted(animator, trackingListener, listener);
+                } else {
+                    final SupportAnimator animator = ViewAnimationUtils.createCircularReveal(view,
+                            cx,
+                            cy,
+                            fromRadius,
+                            toRadius);
+
+                    animator.setInterpolator(new AccelerateDecelerateInterpolator());
+                    animator.setDuration(REVEAL_DURATION);
+                    if (trackingListener != null) {
+                        animator.addListener(trackingListener);
+                    }
+                    if (listener != null) {
+                        animator.addListener(listener);
+                    }
+                    animator.start();
                 }
-                animator.start();
             }
         });
     }
 
-    static Point defaultRevealStartPoint() {
-        return new Point(-1, -1);
+    /*runs action at once if view is laid out, otherwise right before its first draw - so reveal
+    starts with first frame, and does not wait for main thread queue*/
+    static void runWhenLaidOut(final View view, final Runnable action) {
+        if (view.getWidth() > 0 && view.getHeight() > 0) {
+            action.run();
+        } else {
+            view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    view.getViewTreeObserver().removeOnPreDrawListener(this);
+                    action.run();
+                    return true;
+                }
+            });
+        }
     }
 
-    static boolean isDefault(Point point) {
-        return point.x == -1 && point.y == -1;
+    /*Platform reveal, runs on RenderThread: keeps going when main thread is busy. Revealed view
+    is drawn from hardware layer during animation*/
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static class PlatformReveal {
+
+        static void start(View view,
+                          int cx,
+                          int cy,
+                          float fromRadius,
+                          float toRadius,
+                          SupportAnimator.AnimatorListener... listeners) {
+
+            final Animator animator = android.view.ViewAnimationUtils.createCircularReveal(view,
+                    cx,
+                    cy,
+                    fromRadius,
+                    toRadius);
+
+            /*interpolator set in startAdapted has native counterpart, so main thread
+            does not compute frames*/
+            animator.addListener(new HardwareLayerListener(view));
+            startAdapted(animator, listeners);
+        }
     }
 
-    private static Point defaultPointFromView(View view) {
-
-        int cx = view.getLeft() + view.getWidth() / 2;
-        int cy = view.getTop() + view.getHeight() / 2;
-
-        return new Point(cx, cy);
+    private static void startAdapted(Animator animator, SupportAnimator.AnimatorListener... listeners) {
+        animator.setInterpolator(new AccelerateDecelerateInterpolator());
+        animator.setDuration(REVEAL_DURATION);
+        for (SupportAnimator.AnimatorListener listener : listeners) {
+            if (listener != null) {
+                animator.addListener(new ListenerAdapter(listener));
+            }
+        }
+        animator.start();
     }
 
-    static View newGridItem(LayoutInflater inflater, ViewGroup parent, int val, int row, int col) {
+    private static class HardwareLayerListener extends AnimatorListenerAdapter {
 
-        final View view = inflater.inflate(R.layout.time_keyboard_item, parent, false);
-        final TextView textView = (TextView) view.findViewById(R.id.time_key_board_view);
-        textView.setText(String.valueOf(val));
+        private final View view;
+        private int prevLayerType;
 
-        final GridLayout.LayoutParams params = new GridLayout.LayoutParams(view.getLayoutParams());
-        params.columnSpec = GridLayout.spec(col);
-        params.rowSpec = GridLayout.spec(row);
+        public HardwareLayerListener(View view) {
+            this.view = view;
+        }
 
-        view.setLayoutParams(params);
-        view.setTag(R.id.time_kb_val, val);
+        @Override
+        public void onAnimationStart(Animator animation) {
+            prevLayerType = view.getLayerType();
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        }
 
-        return view;
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            view.setLayerType(prevLayerType, null);
+        }
     }
 
-    static void fillGridAndSetItemsListener(LayoutInflater inflater,
-                                            GridLayout parent,
-                                            View.OnClickListener itemListener) {
-        int pos = 1;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                final View view = newGridItem(inflater, parent, pos, i, j);
-                view.setOnClickListener(itemListener);
-                parent.addView(view);
-                pos++;
-            }
+    /*platform animator events to SupportAnimator listener*/
+    private static class ListenerAdapter extends AnimatorListenerAdapter {
+
+        private final SupportAnimator.AnimatorListener listener;
+
+        public ListenerAdapter(SupportAnimator.AnimatorListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            listener.onAnimationStart();
         }
-        final View child = newGridItem(inflater, parent, 0, 3, 1);
-        child.setOnClickListener(itemListener);
-        parent.addView(child);
-    }
 
-    static long timeToMillis(Time time) {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            listener.onAnimationEnd();
+        }
 
-        final Calendar calendar = Calendar.getInstance();
-        int hours = time.getFirstHour() * 10 + time.getSecHour();
-        int mins = time.getFirstMin() * 10 + time.getSecMin();
+        @Override
+        public void onAnimationCancel(Animator animation) {
+            listener.onAnimationCancel();
+        }
 
-        calendar.set(Calendar.HOUR_OF_DAY, hours);
-        calendar.set(Calendar.MINUTE, mins);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
+        @Override
+        public void onAnimationRepeat(Animator animation) {
+            listener.onAnimationRepeat();
+        }
+    }
 
-        return calendar.getTimeInMillis();
+    static Point defaultRevealStartPoint() {
+        return new Point(-1, -1);
     }
 
-    static Time millisToTime(long millis) {
+    static boolean isDefault(Point point) {
+        return point.x == -1 && point.y == -1;
+    }
 
-        final Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(millis);
-        int hours = calendar.get(Calendar.HOUR_OF_DAY);
-        int mins = calendar.get(Calendar.MINUTE);
+    private static Point defaultPointFromView(View view) {
 
-        int firstHour = hours / 10;
-        int secHour = hours - firstHour * 10;
+        int cx = view.getLeft() + view.getWidth() / 2;
+        int cy = view.getTop() + view.getHeight() / 2;
 
-        int firstMin = mins / 10;
-        int secMin = mins - firstMin * 10;
+        return new Point(cx, cy);
+    }
 
-        return new Time(firstHour, secHour, firstMin, secMin);
+    /*dialog root. Does not touch window, may be called off main thread*/
+    static View inflateDialogRoot(LayoutInflater inflater) {
+        return inflater.inflate(R.layout.material_dialog_root, null);
     }
 
     static void assertArgs(Bundle args) {
@@ -201,17 +270,47 @@ public class Util {
                                          Bundle args) {
 
         final String target = args.getString(ARGS_KEY_TARGET);
+        final boolean batch = args.getBoolean(ARGS_KEY_BATCH);
+        final boolean range = args.containsKey(ARGS_KEY_END_TIME);
         if (MaterialTimePickerBuilder.TARGET_FRAGMENT.equals(target)) {
             return new FragmentCallbacks(
                     thisFragment.getTargetFragment(),
-                    args.getInt(ARGS_KEY_REQUEST_CODE));
+                    args.getInt(ARGS_KEY_REQUEST_CODE),
+                    batch,
+                    range);
         } else if (MaterialTimePickerBuilder.TARGET_ACTIVITY.equals(target)) {
-            return new ActivityCallbacks((Callbacks) parentActivity);
+            return new ActivityCallbacks(parentActivity, batch, range);
         } else {
             throw new IllegalStateException("Unknown target: " + String.valueOf(target));
         }
     }
 
+    /*target which provides availability, as checked by builder*/
+    static AvailabilityProvider getAvailabilityProvider(Activity parentActivity,
+                                                        Fragment thisFragment,
+                                                        Bundle args) {
+
+        final String target = args.getString(ARGS_KEY_TARGET);
+        if (MaterialTimePickerBuilder.TARGET_FRAGMENT.equals(target)) {
+            return (AvailabilityProvider) thisFragment.getTargetFragment();
+        } else {
+            return (AvailabilityProvider) parentActivity;
+        }
+    }
+
+    /*target which receives frame stats, as checked by builder*/
+    static MaterialTimePicker.FrameStatsListener getFrameStatsListener(Activity parentActivity,
+                                                                       Fragment thisFragment,
+                                                                       Bundle args) {
+
+        final String target = args.getString(ARGS_KEY_TARGET);
+        if (MaterialTimePickerBuilder.TARGET_FRAGMENT.equals(target)) {
+            return (MaterialTimePicker.FrameStatsListener) thisFragment.getTargetFragment();
+        } else {
+            return (MaterialTimePicker.FrameStatsListener) parentActivity;
+        }
+    }
+
     static void setDialogSize(Activity activity, Dialog dialog,
                               @DimenRes int maxWidthDimenResId,
                               @DimenRes int maxHeightDimenResId) {
@@ -259,6 +358,30 @@ public class Util {
         }
     }
 
+    static class TrackingAnimatorListener extends SupportAnimatorListener {
+
+        private final FrameTracker tracker;
+
+        public TrackingAnimatorListener(FrameTracker tracker) {
+            this.tracker = tracker;
+        }
+
+        @Override
+        public void onAnimationStart() {
+            tracker.start();
+        }
+
+        @Override
+        public void onAnimationEnd() {
+            tracker.stop();
+        }
+
+        @Override
+        public void onAnimationCancel() {
+            tracker.stop();
+        }
+    }
+
     static Pair<Integer, Integer> getWindowSize(Activity c) {
         final Display defaultDisplay = ((WindowManager) c
                 .getSystemService(Context.WINDOW_SERVICE))
@@ -290,54 +413,13 @@ public class Util {
 
         rootView.getLocationOnScreen(loc);
 
-        final Point left = new Point(loc[0], loc[1]);
-        final Point bot = new Point(loc[0] + rootView.getWidth(), loc[1] + rootView.getHeight());
-
-        Point point;
-
-        if (isInsideTri(left, bot, target)) {
-            point = new Point(target);
-        } else if (isOnXpath(left, bot, target)) {
-            point = new Point(getNearestX(left, bot, target), target.y);
-        } else if (isOnYpath(left, bot, target)) {
-            point = new Point(target.x, getNearestY(left, bot, target));
-        } else {
-            point = new Point(getNearestX(left, bot, target), getNearestY(left, bot, target));
-        }
-        point.offset(-left.x, -left.y);
-        return point;
-    }
-
-
-    /*can reach point by moving on x coord only*/
-    private static boolean isOnXpath(Point left, Point bot, Point target) {
-        return target.y >= left.y && target.y <= bot.y;
-    }
-
-    /*can reach point by moving on y coord only*/
-    private static boolean isOnYpath(Point left, Point bot, Point target) {
-        return target.x >= left.x && target.x <= bot.x;
-    }
-
-
-    private static boolean isInsideTri(Point left, Point bot, Point target) {
-
-        return (target.x >= left.x) && (target.y >= left.y) && (target.x <= bot.x) && (target.y <= bot.y);
-    }
-
-    private static int getNearestX(Point left, Point bot, Point target) {
-        final int toLeft = Math.abs(target.x - left.x);
-        final int toBot = Math.abs(target.x - bot.x);
-        int lower = Math.min(toLeft, toBot);
-
-        return lower == toLeft ? left.x : bot.x;
-    }
-
-    private static int getNearestY(Point left, Point bot, Point target) {
-        final int toLeft = Math.abs(target.y - left.y);
-        final int toBot = Math.abs(target.y - bot.y);
-        int lower = Math.min(toLeft, toBot);
+        final long point = RevealGeometry.nearestPoint(loc[0],
+                loc[1],
+                loc[0] + rootView.getWidth(),
+                loc[1] + rootView.getHeight(),
+                target.x,
+                target.y);
 
-        return lower == toLeft ? left.y : bot.y;
+        return new Point(RevealGeometry.x(point), RevealGeometry.y(point));
     }
 }
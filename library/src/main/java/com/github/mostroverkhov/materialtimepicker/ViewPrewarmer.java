@@ -0,0 +1,209 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Inflates dialog view hierarchy on background thread, and hands it to next dialog with same
+ * style. Views are inflated with resources and theme of prewarming activity with dialog style
+ * applied, so they look same as views inflated by dialog. Inflater is one of application
+ * context, w/o factories of activity: those are not meant to run off main thread. Each inflation
+ * has its own context, not shared with main thread, which does not hold activity. Hierarchy is
+ * discarded if activity configuration changes before it is used, or if it is taken by activity
+ * of another class. Methods should be called on main thread
+ */
+class ViewPrewarmer {
+
+    private static ViewPrewarmer instance;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Executor executor = Executors.newSingleThreadExecutor(new PrewarmThreadFactory());
+
+    /*keyed by dialog style resource id*/
+    private final SparseArray<WarmTree> ready = new SparseArray<>();
+    private final SparseArray<Boolean> inProgress = new SparseArray<>();
+
+    private int prewarmed;
+    private int hits;
+    private int missesNotPrewarmed;
+    private int missesInProgress;
+    private int missesStale;
+
+    static ViewPrewarmer getInstance() {
+        if (instance == null) {
+            instance = new ViewPrewarmer();
+        }
+        return instance;
+    }
+
+    void prewarm(Context context, final int styleResId) {
+
+        if (ready.get(styleResId) != null || inProgress.get(styleResId) != null) {
+            return;
+        }
+        inProgress.put(styleResId, Boolean.TRUE);
+
+        /*views are inflated with, and checked against, configuration of activity resources*/
+        final Resources resources = context.getResources();
+        final Configuration config = new Configuration(resources.getConfiguration());
+        final Class<?> owner = context.getClass();
+
+        /*theme and inflater are created here, then used by background thread only*/
+        final Resources.Theme theme = resources.newTheme();
+        theme.setTo(context.getTheme());
+        theme.applyStyle(styleResId, true);
+        final PrewarmContext prewarmContext = new PrewarmContext(context.getApplicationContext(), resources, theme);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+
+                View inflated;
+                try {
+                    inflated = Util.inflateDialogRoot(LayoutInflater.from(prewarmContext));
+                } catch (RuntimeException e) {
+                    /*dialog will inflate on main thread*/
+                    inflated = null;
+                }
+                final View root = inflated;
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        inProgress.remove(styleResId);
+                        if (root != null) {
+                            ready.put(styleResId, new WarmTree(root, config, owner));
+                            prewarmed++;
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /*prewarmed root for style, or null if there is none usable. Returned root is not handed out again*/
+    View take(Context context, int styleResId) {
+
+        final WarmTree warmTree = ready.get(styleResId);
+
+        if (warmTree == null) {
+            if (inProgress.get(styleResId) != null) {
+                missesInProgress++;
+            } else {
+                missesNotPrewarmed++;
+            }
+            return null;
+        }
+        ready.remove(styleResId);
+
+        final Configuration curConfig = context.getResources().getConfiguration();
+        /*activities of same class are assumed to have same theme*/
+        if (warmTree.config.diff(curConfig) != 0 || warmTree.owner != context.getClass()) {
+            missesStale++;
+            return null;
+        }
+        hits++;
+        return warmTree.root;
+    }
+
+    void clear() {
+        ready.clear();
+    }
+
+    PrewarmStats getStats() {
+        return new PrewarmStats(prewarmed,
+                hits,
+                missesNotPrewarmed,
+                missesInProgress,
+                missesStale);
+    }
+
+    private static class WarmTree {
+        private final View root;
+        private final Configuration config;
+        private final Class<?> owner;
+
+        public WarmTree(View root, Configuration config, Class<?> owner) {
+            this.root = root;
+            this.config = config;
+            this.owner = owner;
+        }
+    }
+
+    /*Application context with resources of activity and theme derived from activity one.
+    Inflater is cloned from one of application context, so it has no factories*/
+    private static class PrewarmContext extends ContextWrapper {
+
+        private final Resources resources;
+        private final Resources.Theme theme;
+        private final LayoutInflater inflater;
+
+        PrewarmContext(Context appContext, Resources resources, Resources.Theme theme) {
+            super(appContext);
+            this.resources = resources;
+            this.theme = theme;
+            this.inflater = LayoutInflater.from(appContext).cloneInContext(this);
+        }
+
+        @Override
+        public Resources getResources() {
+            return resources;
+        }
+
+        @Override
+        public Resources.Theme getTheme() {
+            return theme;
+        }
+
+        @Override
+        public Object getSystemService(String name) {
+            if (LAYOUT_INFLATER_SERVICE.equals(name)) {
+                return inflater;
+            }
+            return getBaseContext().getSystemService(name);
+        }
+    }
+
+    private static class PrewarmThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "material-time-picker-prewarm");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
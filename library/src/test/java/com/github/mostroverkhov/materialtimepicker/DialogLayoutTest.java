@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.TextView;
+
+import com.github.mostroverkhov.materialtimepicker.core.RangeEntry;
+import com.github.mostroverkhov.materialtimepicker.core.Time;
+import com.github.mostroverkhov.materialtimepicker.core.TimeEntry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Keystrokes never request layout of dialog root: digits, keys and AM/PM toggle have fixed
+ * metrics and only redraw. Covered with corrections of other positions, 12 hour single digit
+ * hours, AM/PM toggle, range switching between start and end, and animations ending
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DialogLayoutTest {
+
+    private UiBudget.LayoutCountingFrame window;
+    private View root;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+
+        final Activity activity = Robolectric.setupActivity(Activity.class);
+        final Context context = new ContextThemeWrapper(activity,
+                MaterialTimePicker.getStyleReference(activity, R.style.DefMaterialDialogStyle));
+
+        root = Util.inflateDialogRoot(LayoutInflater.from(context));
+        window = new UiBudget.LayoutCountingFrame(context);
+        window.addView(root);
+    }
+
+    @Test
+    public void correctionsDoNotLayout() {
+        final TimePickerController controller = bind(new TimeEntry(Time.fromMinuteOfDay(15 * 60 + 45)));
+        final UiBudget.KeyPresser keys = keys();
+
+        /*15:45 -> 25:45 corrected to 23:45*/
+        keys.press(2);
+        assertNoLayout();
+        keys.press("345");
+        assertNoLayout();
+        finishAnimations();
+
+        assertEquals(23 * 60 + 45, controller.getEntry().getTime().getMinuteOfDay());
+        assertNoLayout();
+    }
+
+    @Test
+    public void twelveHourKeystrokesAndAmPmDoNotLayout() {
+        final Time time = Time.fromMinuteOfDay(10 * 60 + 30);
+        time.setTwelveHour(true);
+        final TimePickerController controller = bind(new TimeEntry(time));
+        final TextView amPmView = (TextView) root.findViewById(R.id.material_dialog_am_pm);
+        controller.setAmPmView(amPmView);
+        window.reset();
+        final UiBudget.KeyPresser keys = keys();
+
+        /*single digit hour: 5 -> 05*/
+        keys.press("515");
+        assertNoLayout();
+        amPmView.performClick();
+        assertNoLayout();
+        /*05:15 -> 15:15 corrected to 12:15, then 10:15*/
+        keys.press("10");
+        assertNoLayout();
+        amPmView.performClick();
+        finishAnimations();
+
+        assertFalse(controller.getEntry().getTime().isPm());
+        assertNoLayout();
+    }
+
+    @Test
+    public void rangeSwitchingDoesNotLayout() {
+        final RangeEntry range = new RangeEntry(Time.fromMinuteOfDay(9 * 60), Time.fromMinuteOfDay(17 * 60), false);
+        final TimePickerController controller = new TimePickerController(digits(), keypad(), range);
+        window.reset();
+        final UiBudget.KeyPresser keys = keys();
+
+        /*start 10:00, then end 18:30, then end minutes*/
+        keys.press("1000");
+        assertNoLayout();
+        keys.press("1830");
+        assertNoLayout();
+        controller.selectRangePosition(RangeEntry.TIME_POSITIONS + 2);
+        assertNoLayout();
+        keys.press("45");
+        assertNoLayout();
+        finishAnimations();
+
+        assertEquals(18 * 60 + 45, range.getEnd().getTime().getMinuteOfDay());
+        assertEquals(range.getStart(), controller.getEntry());
+        assertNoLayout();
+    }
+
+    private TimePickerController bind(TimeEntry entry) {
+        final TimePickerController controller = new TimePickerController(digits(), keypad(), entry);
+        window.reset();
+        return controller;
+    }
+
+    private DigitDisplayView digits() {
+        return (DigitDisplayView) root.findViewById(R.id.material_dialog_digits);
+    }
+
+    private KeypadView keypad() {
+        return (KeypadView) root.findViewById(R.id.material_dialog_keyboard);
+    }
+
+    private UiBudget.KeyPresser keys() {
+        return new UiBudget.KeyPresser(keypad());
+    }
+
+    private void assertNoLayout() {
+        assertEquals(0, window.getLayoutRequests());
+    }
+
+    private static void finishAnimations() {
+        ShadowLooper.idleMainLooper(10 * 1000);
+    }
+}
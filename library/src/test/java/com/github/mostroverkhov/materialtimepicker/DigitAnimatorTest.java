@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static com.github.mostroverkhov.materialtimepicker.UiBudget.allocatedBytes;
+import static com.github.mostroverkhov.materialtimepicker.UiBudget.allocationOverhead;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Transitions of {@link DigitAnimator} requested while it animates: queued, applied in order and
+ * without allocations
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DigitAnimatorTest {
+
+    private DigitDisplayView display;
+    private DigitAnimator animator;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+
+        display = new DigitDisplayView(RuntimeEnvironment.application);
+        animator = new DigitAnimator(display, 0, new DigitAnimator.Callback() {
+            @Override
+            public void onAnimationStarted() {
+            }
+
+            @Override
+            public void onAnimationFinished() {
+            }
+        });
+    }
+
+    @Test
+    public void queuedTransitionsAreAppliedInOrder() {
+        animator.animateTo(1, 5);
+        animator.animateTo(2, 3);
+        animator.animateTo(3, 7);
+
+        assertTrue(animator.isAnimating());
+        assertEquals(2, animator.getPendingCount());
+
+        finishAnimations();
+
+        assertFalse(animator.isAnimating());
+        assertEquals(5, display.getDigit(0));
+        assertEquals(3, display.getDigit(1));
+        assertEquals(7, display.getDigit(2));
+        assertEquals(3, display.getSelectedPosition());
+    }
+
+    @Test
+    public void keystrokesWhileAnimatingDoNotAllocate() {
+        /*warm up: every path including queue overflow and animation end*/
+        typeWhileAnimating();
+        finishAnimations();
+        animator.animateTo(1, 2);
+        final long overhead = allocationOverhead();
+
+        final long start = allocatedBytes();
+        /*queue fills up, then oldest transitions are applied at once*/
+        typeWhileAnimating();
+        final long allocated = allocatedBytes() - start - overhead;
+
+        assertEquals(0, allocated);
+    }
+
+    private void typeWhileAnimating() {
+        for (int i = 0; i < 20; i++) {
+            animator.animateTo(i % 4, i % 10);
+        }
+    }
+
+    private void finishAnimations() {
+        ShadowLooper.idleMainLooper(10 * 1000);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.support.v4.app.FragmentActivity;
+import android.view.View;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static com.github.mostroverkhov.materialtimepicker.UiBudget.allocatedBytes;
+import static com.github.mostroverkhov.materialtimepicker.UiBudget.allocationOverhead;
+import static com.github.mostroverkhov.materialtimepicker.UiBudget.countViews;
+import static com.github.mostroverkhov.materialtimepicker.core.TimeConversions.minuteOfDayToMillis;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * UI budgets of whole dialog session: {@link MaterialTimePicker} is built, shown in activity,
+ * gets ten keystrokes and OK. Budgets are views created, layout passes, setText calls and
+ * allocations, per dialog open and per keystroke. Main looper is paused, so keystrokes are
+ * measured while digit animations are running, same as for fast typing
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class MaterialTimePickerBudgetTest {
+
+    private static final String TAG = "picker";
+
+    /*portrait: reveal layout, content, caption, digits frame, digits, AM/PM, keypad, 2 buttons*/
+    private static final int DIALOG_VIEWS = 9;
+
+    /*ceiling for open of dialog with theme cached, with headroom for allocations of Robolectric
+    shadows*/
+    private static final long OPEN_ALLOCATION_BUDGET = 2 * 1024 * 1024;
+
+    /*first keystroke starts digit animator, which allocates in framework*/
+    private static final long FIRST_KEYSTROKE_ALLOCATION_BUDGET = 1024;
+
+    /*12 hour, 10:30 AM -> 11:30 -> 10:30 -> 11:30*/
+    private static final String KEYSTROKES = "1130103011";
+    private static final int START_MINUTE_OF_DAY = 10 * 60 + 30;
+    private static final int RESULT_MINUTE_OF_DAY = 11 * 60 + 30;
+
+    private TargetActivity activity;
+
+    @Before
+    public void setUp() {
+        ShadowLooper.pauseMainLooper();
+        activity = Robolectric.setupActivity(TargetActivity.class);
+    }
+
+    @Test
+    public void openBudgets() {
+        /*first open resolves theme and loads resources*/
+        dismiss(open(false));
+
+        final long overhead = allocationOverhead();
+        final long start = allocatedBytes();
+        final MaterialTimePicker picker = open(false);
+        final long allocated = allocatedBytes() - start - overhead;
+
+        assertTrue("open allocated " + allocated + " bytes", allocated <= OPEN_ALLOCATION_BUDGET);
+        assertEquals(DIALOG_VIEWS, countViews(dialogRoot(picker)));
+
+        /*one layout pass, reveal does not request another*/
+        final View decor = settle(picker);
+        assertFalse(decor.isLayoutRequested());
+    }
+
+    @Test
+    public void keystrokesAndOkBudgets() {
+        final MaterialTimePicker picker = open(false);
+        final View decor = settle(picker);
+        final View root = dialogRoot(picker);
+        final UiBudget.SetTextCounter amPmTexts = textCounter(root, R.id.material_dialog_am_pm);
+        final UiBudget.SetTextCounter headerTexts = textCounter(root, R.id.material_dialog_top_header);
+        final UiBudget.KeyPresser keys = new UiBudget.KeyPresser(
+                (KeypadView) root.findViewById(R.id.material_dialog_keyboard));
+        final long[] allocated = new long[KEYSTROKES.length()];
+        final long overhead = allocationOverhead();
+
+        for (int i = 0; i < KEYSTROKES.length(); i++) {
+            final long start = allocatedBytes();
+            keys.press(KEYSTROKES.charAt(i) - '0');
+            allocated[i] = allocatedBytes() - start - overhead;
+
+            assertFalse("layout requested by keystroke " + i, decor.isLayoutRequested());
+        }
+
+        assertEquals(DIALOG_VIEWS, countViews(root));
+        assertEquals(0, amPmTexts.getCount());
+        assertEquals(0, headerTexts.getCount());
+        assertTrue("first keystroke allocated " + allocated[0] + " bytes",
+                allocated[0] <= FIRST_KEYSTROKE_ALLOCATION_BUDGET);
+        for (int i = 1; i < allocated.length; i++) {
+            assertEquals("allocated by keystroke " + i, 0, allocated[i]);
+        }
+
+        root.findViewById(R.id.material_dialog_ok_button).performClick();
+        finishAnimations();
+
+        assertEquals(RESULT_MINUTE_OF_DAY, activity.selectedMinuteOfDay);
+        assertEquals(null, activity.getSupportFragmentManager().findFragmentByTag(TAG));
+    }
+
+    @Test
+    public void batchAddDoesNotLayout() {
+        final MaterialTimePicker picker = open(true);
+        final View decor = settle(picker);
+        final View root = dialogRoot(picker);
+        final UiBudget.SetTextCounter amPmTexts = textCounter(root, R.id.material_dialog_am_pm);
+        final UiBudget.SetTextCounter headerTexts = textCounter(root, R.id.material_dialog_top_header);
+        final View addButton = root.findViewById(R.id.material_dialog_ok_button);
+
+        for (int i = 0; i < 3; i++) {
+            addButton.performClick();
+            assertFalse("layout requested by add " + i, decor.isLayoutRequested());
+        }
+
+        /*caption with count of added times*/
+        assertEquals(3, headerTexts.getCount());
+        assertEquals(0, amPmTexts.getCount());
+    }
+
+    private MaterialTimePicker open(boolean batch) {
+        final MaterialTimePicker picker = new MaterialTimePickerBuilder()
+                .withActivity(activity)
+                .withTime(minuteOfDayToMillis(START_MINUTE_OF_DAY, System.currentTimeMillis()))
+                .withHourFormat(MaterialTimePicker.HOUR_FORMAT_12)
+                .batch(batch)
+                .build();
+        picker.show(activity.getSupportFragmentManager(), TAG);
+        activity.getSupportFragmentManager().executePendingTransactions();
+        return picker;
+    }
+
+    private void dismiss(MaterialTimePicker picker) {
+        picker.dismiss();
+        activity.getSupportFragmentManager().executePendingTransactions();
+    }
+
+    /*lays out dialog window at fixed size, draws first frame and runs reveal to its end*/
+    private static View settle(MaterialTimePicker picker) {
+        final View decor = picker.getDialog().getWindow().getDecorView();
+        UiBudget.layout(decor);
+        decor.getViewTreeObserver().dispatchOnPreDraw();
+        finishAnimations();
+        return decor;
+    }
+
+    private static View dialogRoot(MaterialTimePicker picker) {
+        return (View) picker.getDialog().findViewById(R.id.material_dialog_root_id).getParent();
+    }
+
+    private static UiBudget.SetTextCounter textCounter(View root, int viewId) {
+        final UiBudget.SetTextCounter counter = new UiBudget.SetTextCounter();
+        ((TextView) root.findViewById(viewId)).addTextChangedListener(counter);
+        return counter;
+    }
+
+    private static void finishAnimations() {
+        ShadowLooper.idleMainLooper(10 * 1000);
+    }
+
+    public static class TargetActivity extends FragmentActivity
+            implements MaterialTimePicker.TimeOfDayCallbacks, MaterialTimePicker.BatchCallbacks {
+
+        int selectedMinuteOfDay = -1;
+
+        @Override
+        public void onTimeOfDaySelected(int minuteOfDay, int seconds) {
+            selectedMinuteOfDay = minuteOfDay;
+        }
+
+        @Override
+        public void onTimesSelected(long[] millis) {
+        }
+
+        @Override
+        public void onCancelled() {
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016 Maksym Ostroverkhov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.mostroverkhov.materialtimepicker;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counters for UI budgets of tests: views in hierarchy, layout requests, setText calls and
+ * bytes allocated by test thread
+ */
+final class UiBudget {
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private UiBudget() {
+    }
+
+    /*bytes allocated by current thread so far*/
+    static long allocatedBytes() {
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /*bytes allocated by allocatedBytes() itself, subtracted from measurements*/
+    static long allocationOverhead() {
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            final long start = allocatedBytes();
+            overhead = Math.min(overhead, allocatedBytes() - start);
+        }
+        return overhead;
+    }
+
+    static int countViews(View view) {
+        int count = 1;
+        if (view instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                count += countViews(group.getChildAt(i));
+            }
+        }
+        return count;
+    }
+
+    /*measures and lays out root at fixed size, clears its layout request*/
+    static void layout(View root) {
+        root.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.AT_MOST));
+        root.layout(0, 0, root.getMeasuredWidth(), root.getMeasuredHeight());
+    }
+
+    /*Root which counts layout requests of its descendants. Request reaches root once per
+    layout pass, so root is laid out after each counted action*/
+    static class LayoutCountingFrame extends FrameLayout {
+
+        private int layoutRequests;
+
+        LayoutCountingFrame(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void requestLayout() {
+            layoutRequests++;
+            super.requestLayout();
+        }
+
+        int getLayoutRequests() {
+            return layoutRequests;
+        }
+
+        void reset() {
+            layout(this);
+            layoutRequests = 0;
+        }
+    }
+
+    /*counts setText calls of TextView it is added to, changed text or not*/
+    static class SetTextCounter implements TextWatcher {
+
+        private int count;
+
+        @Override
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        }
+
+        @Override
+        public void onTextChanged(CharSequence s, int start, int before, int count) {
+            this.count++;
+        }
+
+        @Override
+        public void afterTextChanged(Editable s) {
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        void reset() {
+            count = 0;
+        }
+    }
+
+    /*Presses keys of laid out keypad. Touch events are created once, so pressing does not
+    allocate*/
+    static class KeyPresser {
+
+        private final KeypadView keypad;
+        private final MotionEvent[] downs = new MotionEvent[10];
+        private final MotionEvent[] ups = new MotionEvent[10];
+
+        KeyPresser(KeypadView keypad) {
+            this.keypad = keypad;
+            final float cellWidth = keypad.getWidth() / 3f;
+            final float cellHeight = keypad.getHeight() / 4f;
+            final long now = SystemClock.uptimeMillis();
+            for (int digit = 0; digit < 10; digit++) {
+                /*1-9 in 3 rows, 0 in the middle of 4th*/
+                final int cell = digit == 0 ? 10 : digit - 1;
+                final float x = (cell % 3 + 0.5f) * cellWidth;
+                final float y = (cell / 3 + 0.5f) * cellHeight;
+                downs[digit] = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, x, y, 0);
+                ups[digit] = MotionEvent.obtain(now, now, MotionEvent.ACTION_UP, x, y, 0);
+            }
+        }
+
+        void press(int digit) {
+            keypad.onTouchEvent(downs[digit]);
+            keypad.onTouchEvent(ups[digit]);
+        }
+
+        /*presses digits of sequence, e.g. "1030"*/
+        void press(String digits) {
+            for (int i = 0; i < digits.length(); i++) {
+                press(digits.charAt(i) - '0');
+            }
+        }
+    }
+}